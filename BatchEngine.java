@@ -0,0 +1,317 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Many independent 7x6 games stepped in lockstep, stored as structure of
+ * arrays: every game is one {@code long} bitboard per player in the layout
+ * of {@link ClassicBitboardBoard}, so a batch of N games is two contiguous
+ * {@code long[N]} and a {@code byte[N]} of states. Running games are kept
+ * packed at the front of the arrays, so late steps only touch the games
+ * still in play.
+ *
+ * {@link #step(int[])} drops one disc into every running game in one pass
+ * over the arrays, then checks the player who moved in every game for four
+ * in a row in a second pass. That pass is branch-free shifts and ANDs over a
+ * {@code long[]} and runs on the JDK Vector API when the
+ * {@code jdk.incubator.vector} module is present (start the JVM with
+ * {@code --add-modules jdk.incubator.vector}) and the kernel from the
+ * separate {@code vector/} source directory is on the class path, otherwise
+ * on a scalar loop.
+ * Both compute the same values, so results never depend on which one ran.
+ *
+ * 'X' moves first in every game, as in {@link SimulationEngine}.
+ */
+public final class BatchEngine {
+
+    public static final int ROWS = ClassicBitboardBoard.ROWS;
+    public static final int COLUMNS = ClassicBitboardBoard.COLUMNS;
+
+    private static final char FIRST = 'X';
+    private static final char SECOND = 'O';
+    private static final int HEIGHT = ROWS + 1;
+    private static final int CELLS = ROWS * COLUMNS;
+
+    private static final byte RUNNING = 0;
+    private static final byte FIRST_WON = 1;
+    private static final byte SECOND_WON = 2;
+    private static final byte DRAW = 3;
+
+    // Bottom bit and all six cells of each column
+    private static final long[] BOTTOM = new long[COLUMNS];
+    private static final long[] COLUMN_MASK = new long[COLUMNS];
+
+    static {
+        for (int c = 0; c < COLUMNS; c++) {
+            BOTTOM[c] = 1L << (c * HEIGHT);
+            COLUMN_MASK[c] = ((1L << ROWS) - 1) << (c * HEIGHT);
+        }
+    }
+
+    private static final Kernel VECTOR_KERNEL = loadVectorKernel();
+
+    private final int size;
+    // Indexed by slot, not game: slots 0 .. running - 1 hold the running games,
+    // finished ones are swapped behind them so every pass only walks live games
+    private final long[] first;
+    private final long[] second;
+    private final byte[] states;
+    private final int[] gameAt;
+    private final int[] slotOf;
+    private final Kernel kernel;
+    private int running;
+
+    // Per-step work arrays by slot: the landing bit, then the mover's bitboard, then its lines
+    private final long[] landing;
+    private final long[] moved;
+    private final long[] lines;
+
+    /** Batch of the given number of empty games, on the Vector API kernel if available. */
+    public BatchEngine(int games) {
+        this(games, VECTOR_KERNEL != null);
+    }
+
+    /**
+     * @param vectorized use the Vector API kernel; false forces the scalar loop
+     * @throws IllegalStateException if vectorized but the Vector API is not available
+     */
+    public BatchEngine(int games, boolean vectorized) {
+        if (games <= 0) {
+            throw new IllegalArgumentException("games must be positive");
+        }
+        if (vectorized && VECTOR_KERNEL == null) {
+            throw new IllegalStateException("jdk.incubator.vector is not available");
+        }
+        this.size = games;
+        this.first = new long[games];
+        this.second = new long[games];
+        this.states = new byte[games];
+        this.gameAt = new int[games];
+        this.slotOf = new int[games];
+        for (int i = 0; i < games; i++) {
+            gameAt[i] = i;
+            slotOf[i] = i;
+        }
+        this.kernel = vectorized ? VECTOR_KERNEL : BatchEngine::findFours;
+        this.landing = new long[games];
+        this.moved = new long[games];
+        this.lines = new long[games];
+        this.running = games;
+    }
+
+    /** True if the Vector API kernel could be loaded in this JVM. */
+    public static boolean isVectorAvailable() {
+        return VECTOR_KERNEL != null;
+    }
+
+    public boolean isVectorized() {
+        return kernel == VECTOR_KERNEL;
+    }
+
+    /** Number of games in the batch. */
+    public int size() {
+        return size;
+    }
+
+    /** Games that are neither won nor drawn. */
+    public int getRunningCount() {
+        return running;
+    }
+
+    /** Empties every game. Slots keep their current order, which is as good as any. */
+    public void reset() {
+        Arrays.fill(first, 0L);
+        Arrays.fill(second, 0L);
+        Arrays.fill(states, RUNNING);
+        running = size;
+    }
+
+    /**
+     * Drops one disc into every running game, for the player to move there,
+     * and checks each of those games for a win or a full board.
+     * @param columns column per game; entries of finished games are ignored
+     * @return number of games that ended with this step
+     * @throws IllegalArgumentException if a running game gets an invalid or
+     *         full column; no game is changed then
+     */
+    public int step(int[] columns) {
+        if (columns.length < size) {
+            throw new IllegalArgumentException("need a column for each of the " + size + " games");
+        }
+        // Landing bits first, validating everything before anything changes
+        for (int s = 0; s < running; s++) {
+            int column = columns[gameAt[s]];
+            if (column < 0 || column >= COLUMNS) {
+                throw new IllegalArgumentException("Invalid column " + column + " in game " + gameAt[s]);
+            }
+            long bit = ((first[s] | second[s]) + BOTTOM[column]) & COLUMN_MASK[column];
+            if (bit == 0L) {
+                throw new IllegalArgumentException("column " + column + " is full in game " + gameAt[s]);
+            }
+            landing[s] = bit;
+        }
+        for (int s = 0; s < running; s++) {
+            place(s, landing[s]);
+        }
+        return finishStep();
+    }
+
+    /**
+     * Plays every running game to the end with uniformly random non-full
+     * columns, stepping the whole batch together. Allocates nothing.
+     * @return number of discs dropped
+     */
+    public long playRandom(SplittableRandom random) {
+        long discs = 0;
+        long bits = 0L;
+        int bitsLeft = 0;
+        while (running > 0) {
+            // Columns are redrawn until legal, so pick and place in one pass
+            for (int s = 0; s < running; s++) {
+                long mask = first[s] | second[s];
+                long bit;
+                do {
+                    // 3 random bits per try, 21 tries per nextLong(); 7 and full columns are redrawn
+                    if (bitsLeft == 0) {
+                        bits = random.nextLong();
+                        bitsLeft = 21;
+                    }
+                    int column = (int) (bits & 7);
+                    bits >>>= 3;
+                    bitsLeft--;
+                    bit = column < COLUMNS ? (mask + BOTTOM[column]) & COLUMN_MASK[column] : 0L;
+                } while (bit == 0L);
+                place(s, bit);
+            }
+            discs += running;
+            finishStep();
+        }
+        return discs;
+    }
+
+    public boolean isOver(int game) {
+        return states[slotOf[game]] != RUNNING;
+    }
+
+    /** 'X' or 'O' if that player won the game, ' ' if it is drawn or still running. */
+    public char getWinner(int game) {
+        byte state = states[slotOf[game]];
+        return state == FIRST_WON ? FIRST : state == SECOND_WON ? SECOND : ' ';
+    }
+
+    public int getMoveCount(int game) {
+        int s = slotOf[game];
+        return Long.bitCount(first[s] | second[s]);
+    }
+
+    public boolean isColumnPlayable(int game, int column) {
+        int s = slotOf[game];
+        return (((first[s] | second[s]) + BOTTOM[column]) & COLUMN_MASK[column]) != 0L;
+    }
+
+    /** Symbol on (row, col) of the game, ' ' if empty; row 0 is the top row. */
+    public char getCell(int game, int row, int col) {
+        int s = slotOf[game];
+        long bit = 1L << (col * HEIGHT + (ROWS - 1 - row));
+        if ((first[s] & bit) != 0L) {
+            return FIRST;
+        }
+        return (second[s] & bit) != 0L ? SECOND : ' ';
+    }
+
+    /** Adds the landing bit for the player to move in slot s; moved[s] becomes that player's bitboard. */
+    private void place(int s, long bit) {
+        if (Long.bitCount(first[s] | second[s]) % 2 == 0) {
+            moved[s] = first[s] |= bit;
+        } else {
+            moved[s] = second[s] |= bit;
+        }
+    }
+
+    /**
+     * Checks every mover for four in a row in one kernel pass, then books
+     * wins and full boards, swapping finished games behind the running ones.
+     * @return number of games that ended
+     */
+    private int finishStep() {
+        kernel.findFours(moved, lines, running);
+        int ended = 0;
+        // Downwards, so the slot swapped in from the end has already been booked
+        for (int s = running - 1; s >= 0; s--) {
+            byte state;
+            if (lines[s] != 0L) {
+                state = Long.bitCount(first[s] | second[s]) % 2 == 1 ? FIRST_WON : SECOND_WON;
+            } else if (Long.bitCount(first[s] | second[s]) == CELLS) {
+                state = DRAW;
+            } else {
+                continue;
+            }
+            states[s] = state;
+            swap(s, running - 1 - ended);
+            ended++;
+        }
+        running -= ended;
+        return ended;
+    }
+
+    private void swap(int a, int b) {
+        if (a == b) {
+            return;
+        }
+        long f = first[a];
+        first[a] = first[b];
+        first[b] = f;
+        long g = second[a];
+        second[a] = second[b];
+        second[b] = g;
+        byte state = states[a];
+        states[a] = states[b];
+        states[b] = state;
+        int game = gameAt[a];
+        gameAt[a] = gameAt[b];
+        gameAt[b] = game;
+        slotOf[gameAt[a]] = a;
+        slotOf[gameAt[b]] = b;
+    }
+
+    /**
+     * Scalar kernel: lines[i] gets the start bits of every four in a row in
+     * bits[i], over all four directions; nonzero means a win.
+     */
+    static void findFours(long[] bits, long[] lines, int n) {
+        for (int i = 0; i < n; i++) {
+            lines[i] = fours(bits[i]);
+        }
+    }
+
+    /** Start bits of the fours in one bitboard; the vector kernel computes the same per lane. */
+    static long fours(long b) {
+        long h = b & (b >>> HEIGHT);
+        long d1 = b & (b >>> (HEIGHT - 1));
+        long d2 = b & (b >>> (HEIGHT + 1));
+        long v = b & (b >>> 1);
+        return (h & (h >>> (2 * HEIGHT)))
+             | (d1 & (d1 >>> (2 * (HEIGHT - 1))))
+             | (d2 & (d2 >>> (2 * (HEIGHT + 1))))
+             | (v & (v >>> 2));
+    }
+
+    /**
+     * The Vector API kernel, or null when jdk.incubator.vector is not in the
+     * module graph. Looked up next to this class, which the bench build moves
+     * into a package.
+     */
+    private static Kernel loadVectorKernel() {
+        String pkg = BatchEngine.class.getPackageName();
+        String name = pkg.isEmpty() ? "BatchVectorKernel" : pkg + ".BatchVectorKernel";
+        try {
+            return (Kernel) Class.forName(name).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /** Win check over a batch of bitboards: lines[i] = {@link #fours}(bits[i]) for i below n. */
+    interface Kernel {
+        void findFours(long[] bits, long[] lines, int n);
+    }
+}
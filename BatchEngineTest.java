@@ -0,0 +1,98 @@
+// BatchEngineTest.java
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+
+public class BatchEngineTest {
+
+    @Test
+    public void scalarKernelAgreesWithSeparateBoards() {
+        assertAgreesWithSeparateBoards(false);
+    }
+
+    @Test
+    public void vectorKernelAgreesWithSeparateBoards() {
+        assumeTrue("jdk.incubator.vector not available", BatchEngine.isVectorAvailable());
+        assertAgreesWithSeparateBoards(true);
+    }
+
+    private static void assertAgreesWithSeparateBoards(boolean vectorized) {
+        // odd size so the vector kernel also runs its scalar tail
+        int games = 37;
+        BatchEngine batch = new BatchEngine(games, vectorized);
+        assertEquals(vectorized, batch.isVectorized());
+        ClassicBitboardBoard[] boards = new ClassicBitboardBoard[games];
+        for (int i = 0; i < games; i++) {
+            boards[i] = new ClassicBitboardBoard();
+        }
+        Random random = new Random(25);
+        int[] columns = new int[games];
+        while (batch.getRunningCount() > 0) {
+            for (int i = 0; i < games; i++) {
+                if (!batch.isOver(i)) {
+                    do {
+                        columns[i] = random.nextInt(BatchEngine.COLUMNS);
+                    } while (!boards[i].isColumnPlayable(columns[i]));
+                    boards[i].dropDisc(columns[i], boards[i].getSymbolToMove());
+                }
+            }
+            batch.step(columns);
+            for (int i = 0; i < games; i++) {
+                ClassicBitboardBoard board = boards[i];
+                boolean won = board.hasConnectFour();
+                assertEquals("game " + i, won || board.isFull(), batch.isOver(i));
+                assertEquals(won ? board.getCell(board.getLastRow(), board.getLastCol()) : ' ', batch.getWinner(i));
+                assertEquals(board.getMoveCount(), batch.getMoveCount(i));
+                for (int c = 0; c < BatchEngine.COLUMNS; c++) {
+                    assertEquals(board.isColumnPlayable(c), batch.isColumnPlayable(i, c));
+                    assertEquals(board.getCell(BatchEngine.ROWS - 1, c), batch.getCell(i, BatchEngine.ROWS - 1, c));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void vectorKernelGivesTheSameGames() {
+        assumeTrue("jdk.incubator.vector not available", BatchEngine.isVectorAvailable());
+        BatchEngine scalar = new BatchEngine(1001, false);
+        BatchEngine vector = new BatchEngine(1001, true);
+        assertTrue(vector.isVectorized());
+        assertEquals(scalar.playRandom(new SplittableRandom(3)), vector.playRandom(new SplittableRandom(3)));
+        for (int i = 0; i < 1001; i++) {
+            assertEquals(scalar.getWinner(i), vector.getWinner(i));
+            assertEquals(scalar.getMoveCount(i), vector.getMoveCount(i));
+        }
+    }
+
+    @Test
+    public void illegalColumnChangesNoGame() {
+        BatchEngine batch = new BatchEngine(2);
+        int[] columns = {0, 0};
+        for (int i = 0; i < BatchEngine.ROWS; i++) {
+            batch.step(columns);
+        }
+        try {
+            batch.step(new int[] {1, 0});
+            fail("column 0 is full");
+        } catch (IllegalArgumentException expected) {
+            // game 0 must not have received its disc either
+        }
+        assertEquals(BatchEngine.ROWS, batch.getMoveCount(0));
+        assertEquals(' ', batch.getCell(0, BatchEngine.ROWS - 1, 1));
+    }
+
+    @Test
+    public void resetEmptiesEveryGame() {
+        BatchEngine batch = new BatchEngine(100);
+        batch.playRandom(new SplittableRandom(1));
+        assertEquals(0, batch.getRunningCount());
+        batch.reset();
+        assertEquals(100, batch.getRunningCount());
+        assertEquals(0, batch.getMoveCount(99));
+        assertFalse(batch.isOver(0));
+    }
+}
@@ -1,48 +1,107 @@
-import java.util.BitSet;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 /**
  * Connect-four board that keeps per-player bitboards for fast win detection.
- * For small boards (up to 64 cells) we also maintain packed 64-bit masks to
- * leverage inexpensive bit operations.
+ *
+ * Every player gets a multi-word {@code long[]} bitboard, indexed by the
+ * dense id from the board's {@link PlayerRegistry}, laid out
+ * column-major: every column takes rows + 1 bits, bottom cell first, and the
+ * extra top bit is a sentinel that always stays 0. A guard band of empty bits
+ * on either side of the board means a line walked from any cell never wraps
+ * into the next column or falls off the array, so win checks are plain
+ * shifts and masks with no bounds checks at any board size. A bitboard is
+ * allocated the first time its player drops a disc; after that, drops,
+ * undos and win checks for any symbol allocate nothing.
+ *
+ * The per-move cost of a win check depends on the win length K only. For
+ * each direction the 2K - 1 cells of the line through the last disc are cut
+ * out of the bitboard as one 64-bit window (a shift of one or two words)
+ * and masked to that direction's bits, then searched for K ones in
+ * O(log K) shift-and-AND steps at multiples of the direction's shift. A
+ * line that spans more than 64 bits (tall boards or long K) is gathered
+ * cell by cell instead, and lines longer than 32 are walked bit by bit.
+ *
+ * {@link #findAnyConnectFour()} judges the whole board instead: per player
+ * and direction it ANDs the bitboard with shifted copies of itself, 64 cells
+ * per word operation, in O(log K) passes.
  */
-public class BitboardBoard extends ConnectFourBoard {
+public class BitboardBoard extends ConnectFourBoard implements WinLineFinder {
 
-    private final boolean usePacked;
-    private long packedX;
-    private long packedO;
+    // Bits per column including the sentinel; also the horizontal shift
+    private final int stride;
+    // Empty bits before the first column so that p - (winLength - 1) * (stride + 1) stays >= 0
+    private final int guard;
 
-    private Map<Character, BitSet> bitBoards;
+    // Longest line that still fits the gathered 2K - 1 bits into one long
+    private static final int MAX_GATHERED_WIN_LENGTH = 32;
+
+    private final int words;
+
+    // Bit shift of each line direction: vertical, horizontal, diagonal, anti-diagonal
+    private final int[] shifts;
+    // Bits j * shift, j < 2K - 1, of the window around a disc; 0 where the line spans more than 64 bits
+    private final long[] lineMasks;
+
+    // bits[playerId]; null until that player's first disc on this board
+    private long[][] bits = new long[2][];
+    // Work array for the whole-board scan, allocated on first use
+    private long[] scratch;
 
     public BitboardBoard(int rows, int columns) {
-        super(rows, columns);
-        this.usePacked = rows * columns <= Long.SIZE;
+        this(rows, columns, 4);
     }
 
-    @Override
-    public void reset() {
-        super.reset();
-        packedX = 0L;
-        packedO = 0L;
-        if (bitBoards == null) {
-            bitBoards = new HashMap<>();
-        } else {
-            bitBoards.clear();
+    public BitboardBoard(int rows, int columns, int winLength) {
+        super(rows, columns, winLength);
+        this.stride = rows + 1;
+        this.guard = guardBits(rows, winLength);
+        this.words = wordCount(rows, columns, winLength);
+        this.shifts = new int[] {1, stride, stride - 1, stride + 1};
+        this.lineMasks = new long[shifts.length];
+        for (int d = 0; d < shifts.length; d++) {
+            if ((2L * winLength - 2) * shifts[d] < 64) {
+                for (int j = 0; j < 2 * winLength - 1; j++) {
+                    lineMasks[d] |= 1L << (j * shifts[d]);
+                }
+            }
         }
     }
 
     @Override
-    public int dropDisc(int column, char symbol) {
-        int row = super.dropDisc(column, symbol);
-        if (row >= 0) {
-            int idx = index(row, column);
-            if (usePacked) {
-                updatePacked(symbol, idx, true);
+    protected void clear() {
+        super.clear();
+        for (long[] playerBits : bits) {
+            if (playerBits != null) {
+                Arrays.fill(playerBits, 0L);
             }
-            bitBoardFor(symbol).set(idx);
         }
-        return row;
+    }
+
+    @Override
+    protected void onDiscDropped(int row, int col, char symbol) {
+        long[] playerBits = bitsFor(players.idOf(symbol));
+        int p = bitIndex(row, col);
+        playerBits[p >>> 6] |= 1L << p;
+    }
+
+    @Override
+    protected void onDiscRemoved(int row, int col, char symbol) {
+        long[] playerBits = bitsFor(players.idOf(symbol));
+        int p = bitIndex(row, col);
+        playerBits[p >>> 6] &= ~(1L << p);
+    }
+
+    /** Copies the bitboards word by word: O(words), no replay. */
+    @Override
+    public BoardSnapshot snapshot() {
+        char[] symbols = new char[players.size()];
+        long[][] copies = new long[symbols.length][];
+        for (int id = 0; id < symbols.length; id++) {
+            symbols[id] = players.symbolOf(id);
+            long[] playerBits = id < bits.length ? bits[id] : null;
+            copies[id] = playerBits != null ? playerBits.clone() : new long[words];
+        }
+        return new BoardSnapshot(rows, columns, winLength, moveCount, getZobristHash(), symbols, copies);
     }
 
     @Override
@@ -51,119 +110,232 @@ public class BitboardBoard extends ConnectFourBoard {
             return false;
         }
 
-        char symbol = grid[lastRow][lastCol];
+        char symbol = grid.get(lastRow, lastCol);
         if (symbol == ' ') {
             return false;
         }
 
-        if (usePacked && (symbol == 'X' || symbol == 'O')) {
-            long bits = symbol == 'X' ? packedX : packedO;
-            return hasPackedConnectFour(bits, lastRow, lastCol);
-        }
-
-        BitSet bits = bitBoards.get(symbol);
-        if (bits == null) {
+        int id = players.find(symbol);
+        if (id < 0 || id >= bits.length || bits[id] == null) {
             return false;
         }
 
-        return hasBitSetConnectFour(bits, lastRow, lastCol);
+        return hasPackedConnectFour(bits[id], bitIndex(lastRow, lastCol));
     }
 
-    private boolean hasPackedConnectFour(long bits, int row, int col) {
-        int horizontal = 1 + countPacked(bits, row, col, 0, 1)
-                           + countPacked(bits, row, col, 0, -1);
-        if (horizontal >= 4) return true;
-
-        int vertical = 1 + countPacked(bits, row, col, 1, 0)
-                         + countPacked(bits, row, col, -1, 0);
-        if (vertical >= 4) return true;
+    /**
+     * Whole-board scan: for every player and direction, shifts the bitboard
+     * against itself until bit p survives only if p, p + shift, ...,
+     * p + (K - 1) * shift are all set. Guard bands and sentinel bits keep
+     * the shifts from joining discs of different columns. O(words * log K)
+     * per player and direction, no allocation unless a line is found.
+     */
+    @Override
+    public WinningLine findAnyConnectFour() {
+        if (scratch == null) {
+            scratch = new long[words];
+        }
+        for (int id = 0; id < bits.length; id++) {
+            long[] playerBits = bits[id];
+            if (playerBits == null) {
+                continue;
+            }
+            // vertical runs go up the column: row - 1 each step
+            WinningLine line = findRun(id, playerBits, 1, -1, 0);
+            if (line == null) line = findRun(id, playerBits, stride, 0, 1);
+            if (line == null) line = findRun(id, playerBits, stride - 1, 1, 1);
+            if (line == null) line = findRun(id, playerBits, stride + 1, -1, 1);
+            if (line != null) {
+                return line;
+            }
+        }
+        return null;
+    }
 
-        int diag1 = 1 + countPacked(bits, row, col, 1, 1)
-                      + countPacked(bits, row, col, -1, -1);
-        if (diag1 >= 4) return true;
+    private WinningLine findRun(int id, long[] playerBits, int shift, int rowStep, int colStep) {
+        int p = firstRunStart(playerBits, scratch, shift, winLength);
+        if (p < 0) {
+            return null;
+        }
+        int offset = p - guard;
+        return new WinningLine(players.symbolOf(id), rows - 1 - offset % stride, offset / stride,
+                               rowStep, colStep, winLength);
+    }
 
-        int diag2 = 1 + countPacked(bits, row, col, 1, -1)
-                      + countPacked(bits, row, col, -1, 1);
-        return diag2 >= 4;
+    /**
+     * Lowest bit p of playerBits such that p, p + shift, ..., p + (k - 1) * shift
+     * are all set, or -1. scratch must be as long as playerBits and is overwritten.
+     */
+    static int firstRunStart(long[] playerBits, long[] scratch, int shift, int k) {
+        long[] m = scratch;
+        long any;
+        if (k == 1) {
+            System.arraycopy(playerBits, 0, m, 0, playerBits.length);
+            any = 1L;
+        } else {
+            any = andShifted(playerBits, m, shift);
+            int len = 2;
+            while (any != 0L && len * 2 <= k) {
+                any = andShifted(m, m, len * shift);
+                len *= 2;
+            }
+            if (any != 0L && len < k) {
+                any = andShifted(m, m, (k - len) * shift);
+            }
+        }
+        if (any == 0L) {
+            return -1;
+        }
+        for (int w = 0; w < playerBits.length; w++) {
+            if (m[w] != 0L) {
+                return w * 64 + Long.numberOfTrailingZeros(m[w]);
+            }
+        }
+        return -1;
     }
 
-    private int countPacked(long bits, int row, int col, int dr, int dc) {
-        int count = 0;
-        int r = row + dr;
-        int c = col + dc;
-        while (r >= 0 && r < rows && c >= 0 && c < columns) {
-            int idx = index(r, c);
-            if (((bits >>> idx) & 1L) == 0L) {
-                break;
+    /**
+     * dst = src & (src >>> shift) across the whole array. dst may be src:
+     * word i only reads words i and above.
+     * @return the OR of all result words, 0 if no bit survived
+     */
+    private static long andShifted(long[] src, long[] dst, int shift) {
+        int wordShift = shift >>> 6;
+        int bitShift = shift & 63;
+        int n = src.length;
+        int i = 0;
+        long any = 0L;
+        if (bitShift == 0) {
+            for (; i + wordShift < n; i++) {
+                long w = src[i] & src[i + wordShift];
+                dst[i] = w;
+                any |= w;
+            }
+        } else {
+            // branch-free body while both source words exist, then the last partial word
+            for (; i + wordShift + 1 < n; i++) {
+                long w = src[i] & ((src[i + wordShift] >>> bitShift) | (src[i + wordShift + 1] << (64 - bitShift)));
+                dst[i] = w;
+                any |= w;
+            }
+            if (i + wordShift < n) {
+                long w = src[i] & (src[i + wordShift] >>> bitShift);
+                dst[i] = w;
+                any |= w;
+                i++;
             }
-            count++;
-            r += dr;
-            c += dc;
         }
-        return count;
+        for (; i < n; i++) {
+            dst[i] = 0L;
+        }
+        return any;
     }
 
-    private boolean hasBitSetConnectFour(BitSet bits, int row, int col) {
-        int horizontal = 1 + countBitSet(bits, row, col, 0, 1)
-                           + countBitSet(bits, row, col, 0, -1);
-        if (horizontal >= 4) return true;
+    /** Checks the four lines through bit p (p - (K - 1) * shift .. p + (K - 1) * shift) for K ones. */
+    private boolean hasPackedConnectFour(long[] bits, int p) {
+        int k = winLength;
+        if (k > MAX_GATHERED_WIN_LENGTH) {
+            return runLength(bits, p, 1) >= k
+                || runLength(bits, p, stride) >= k
+                || runLength(bits, p, stride - 1) >= k
+                || runLength(bits, p, stride + 1) >= k;
+        }
+        return hasLine(bits, p, 0) || hasLine(bits, p, 1) || hasLine(bits, p, 2) || hasLine(bits, p, 3);
+    }
 
-        int vertical = 1 + countBitSet(bits, row, col, 1, 0)
-                         + countBitSet(bits, row, col, -1, 0);
-        if (vertical >= 4) return true;
+    /**
+     * Line through p along direction d: one window read and a mask when its
+     * 2K - 1 bits lie within 64, else gathered into the low bits one by one.
+     */
+    private boolean hasLine(long[] bits, int p, int d) {
+        int k = winLength;
+        int shift = shifts[d];
+        long mask = lineMasks[d];
+        if (mask == 0L) {
+            return hasRun(line(bits, p, shift, k), k, 1);
+        }
+        return hasRun(window(bits, p - (k - 1) * shift) & mask, k, shift);
+    }
 
-        int diag1 = 1 + countBitSet(bits, row, col, 1, 1)
-                      + countBitSet(bits, row, col, -1, -1);
-        if (diag1 >= 4) return true;
+    /**
+     * True if line has k ones spaced shift bits apart: log2(k) doubling steps
+     * plus one overlap step. Every shift stays below 64 for lines that fit.
+     */
+    private static boolean hasRun(long line, int k, int shift) {
+        long m = line;
+        int len = 1;
+        while (len * 2 <= k) {
+            m &= m >>> (len * shift);
+            len *= 2;
+        }
+        if (len < k) {
+            m &= m >>> ((k - len) * shift);
+        }
+        return m != 0L;
+    }
 
-        int diag2 = 1 + countBitSet(bits, row, col, 1, -1)
-                      + countBitSet(bits, row, col, -1, 1);
-        return diag2 >= 4;
+    /** Gathers the 2k - 1 bits p + j * shift for j = -(k - 1)..k - 1 into the low bits; for lines wider than a window. */
+    private static long line(long[] bits, int p, int shift, int k) {
+        int i = p - (k - 1) * shift;
+        long line = 0L;
+        for (int j = 0; j < 2 * k - 1; j++, i += shift) {
+            line |= ((bits[i >>> 6] >>> i) & 1L) << j;
+        }
+        return line;
     }
 
-    private int countBitSet(BitSet bits, int row, int col, int dr, int dc) {
-        int count = 0;
-        int r = row + dr;
-        int c = col + dc;
-        while (r >= 0 && r < rows && c >= 0 && c < columns) {
-            int idx = index(r, c);
-            if (!bits.get(idx)) {
-                break;
-            }
+    /** Length of the run of ones through p along shift, looking at most winLength - 1 bits either way. */
+    private int runLength(long[] bits, int p, int shift) {
+        int count = 1;
+        for (int i = p + shift, j = 1; j < winLength && ((bits[i >>> 6] >>> i) & 1L) != 0L; i += shift, j++) {
+            count++;
+        }
+        for (int i = p - shift, j = 1; j < winLength && ((bits[i >>> 6] >>> i) & 1L) != 0L; i -= shift, j++) {
             count++;
-            r += dr;
-            c += dc;
         }
         return count;
     }
 
-    private BitSet bitBoardFor(char symbol) {
-        if (bitBoards == null) {
-            bitBoards = new HashMap<>();
-        }
-        BitSet bits = bitBoards.get(symbol);
-        if (bits == null) {
-            bits = new BitSet(rows * columns);
-            bitBoards.put(symbol, bits);
+    /** The 64 bits starting at bit index {@code from}, spanning two words when unaligned. */
+    private static long window(long[] bits, int from) {
+        int word = from >>> 6;
+        int offset = from & 63;
+        long low = bits[word] >>> offset;
+        if (offset == 0 || word + 1 >= bits.length) {
+            return low;
         }
-        return bits;
+        return low | (bits[word + 1] << (64 - offset));
     }
 
-    private void updatePacked(char symbol, int idx, boolean set) {
-        long mask = 1L << idx;
-        if (symbol == 'X') {
-            if (set) packedX |= mask;
-            else packedX &= ~mask;
-        } else if (symbol == 'O') {
-            if (set) packedO |= mask;
-            else packedO &= ~mask;
-        } else {
-            // No packed representation for other symbols.
+    /** Bitboard of the player, allocated on the player's first disc. */
+    private long[] bitsFor(int id) {
+        if (id >= bits.length) {
+            bits = Arrays.copyOf(bits, Math.max(id + 1, bits.length * 2));
+        }
+        long[] playerBits = bits[id];
+        if (playerBits == null) {
+            playerBits = new long[words];
+            bits[id] = playerBits;
         }
+        return playerBits;
     }
 
-    private int index(int row, int col) {
-        return row * columns + col;
+    /** Bit of (row, col) in the column-major packed layout; row 0 is the top row. */
+    private int bitIndex(int row, int col) {
+        return guard + col * stride + (rows - 1 - row);
+    }
+
+    static int guardBits(int rows, int winLength) {
+        return (winLength - 1) * (rows + 2);
     }
-}
 
+    static int wordCount(int rows, int columns, int winLength) {
+        return (int) packedWords(rows, columns, winLength);
+    }
+
+    /** Words of one player's bitboard, as a long so that callers can reject huge boards. */
+    static long packedWords(int rows, int columns, int winLength) {
+        long bits = 2L * guardBits(rows, winLength) + (long) columns * (rows + 1);
+        return (bits + 63) >>> 6;
+    }
+}
@@ -0,0 +1,141 @@
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in counters for the hot board operations: how often each of
+ * dropDisc, undoMove, hasConnectFour and reset ran, the time spent in
+ * them, latency histograms, and how many cells each win check read on
+ * boards whose check walks cells.
+ *
+ * Filled by wrapping a board in a {@link MeteredBoard}; boards that are not
+ * wrapped pay nothing. One instance may be shared by boards on many
+ * threads, as all updates are lock-free.
+ * {@link #snapshot()} gives a consistent-enough copy for exporting.
+ */
+public final class BoardMetrics {
+
+    /** The measured board operations. */
+    public enum Operation {
+        DROP, UNDO, CHECK, RESET;
+
+        /** Lower-case name used as the key prefix in {@link Snapshot#toMap()}. */
+        public String key() {
+            return name().toLowerCase();
+        }
+    }
+
+    private final Map<Operation, LongAdder> counts = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> totalNanos = new EnumMap<>(Operation.class);
+    private final Map<Operation, LogHistogram> latencies = new EnumMap<>(Operation.class);
+    private final LongAdder totalCells = new LongAdder();
+    private final LogHistogram cellsPerCheck = new LogHistogram();
+
+    public BoardMetrics() {
+        for (Operation op : Operation.values()) {
+            counts.put(op, new LongAdder());
+            totalNanos.put(op, new LongAdder());
+            latencies.put(op, new LogHistogram());
+        }
+    }
+
+    void record(Operation op, long nanos) {
+        counts.get(op).increment();
+        totalNanos.get(op).add(nanos);
+        latencies.get(op).record(nanos);
+    }
+
+    void recordCellsInspected(long cells) {
+        totalCells.add(cells);
+        cellsPerCheck.record(cells);
+    }
+
+    /** Zeroes every counter. Records racing with this may be lost. */
+    public void clear() {
+        for (Operation op : Operation.values()) {
+            counts.get(op).reset();
+            totalNanos.get(op).reset();
+            latencies.get(op).clear();
+        }
+        totalCells.reset();
+        cellsPerCheck.clear();
+    }
+
+    public Snapshot snapshot() {
+        Map<Operation, Long> countCopy = new EnumMap<>(Operation.class);
+        Map<Operation, Long> nanosCopy = new EnumMap<>(Operation.class);
+        Map<Operation, LogHistogram.Snapshot> latencyCopy = new EnumMap<>(Operation.class);
+        for (Operation op : Operation.values()) {
+            countCopy.put(op, counts.get(op).sum());
+            nanosCopy.put(op, totalNanos.get(op).sum());
+            latencyCopy.put(op, latencies.get(op).snapshot());
+        }
+        return new Snapshot(countCopy, nanosCopy, latencyCopy, totalCells.sum(), cellsPerCheck.snapshot());
+    }
+
+    /** Numbers at one point in time, for export to an external metrics system. */
+    public static final class Snapshot {
+
+        private final Map<Operation, Long> counts;
+        private final Map<Operation, Long> totalNanos;
+        private final Map<Operation, LogHistogram.Snapshot> latencies;
+        private final long totalCellsInspected;
+        private final LogHistogram.Snapshot cellsPerCheck;
+
+        Snapshot(Map<Operation, Long> counts, Map<Operation, Long> totalNanos,
+                 Map<Operation, LogHistogram.Snapshot> latencies,
+                 long totalCellsInspected, LogHistogram.Snapshot cellsPerCheck) {
+            this.counts = counts;
+            this.totalNanos = totalNanos;
+            this.latencies = latencies;
+            this.totalCellsInspected = totalCellsInspected;
+            this.cellsPerCheck = cellsPerCheck;
+        }
+
+        public long getCount(Operation op) {
+            return counts.get(op);
+        }
+
+        public long getTotalNanos(Operation op) {
+            return totalNanos.get(op);
+        }
+
+        /** Latency distribution of the operation in nanoseconds. */
+        public LogHistogram.Snapshot getLatency(Operation op) {
+            return latencies.get(op);
+        }
+
+        /** Cells read by all win checks together; checks of bitboard boards report none. */
+        public long getTotalCellsInspected() {
+            return totalCellsInspected;
+        }
+
+        /** Distribution of cells read per win check. */
+        public LogHistogram.Snapshot getCellsPerCheck() {
+            return cellsPerCheck;
+        }
+
+        /**
+         * Flat name/value view, e.g. "check.count", "check.nanos.p99",
+         * "check.cells.total", in a stable order.
+         */
+        public Map<String, Long> toMap() {
+            Map<String, Long> values = new LinkedHashMap<>();
+            for (Operation op : Operation.values()) {
+                String prefix = op.key();
+                LogHistogram.Snapshot latency = latencies.get(op);
+                values.put(prefix + ".count", counts.get(op));
+                values.put(prefix + ".nanos.total", totalNanos.get(op));
+                values.put(prefix + ".nanos.p50", latency.getValueAtPercentile(50));
+                values.put(prefix + ".nanos.p99", latency.getValueAtPercentile(99));
+                values.put(prefix + ".nanos.max", latency.getMax());
+            }
+            values.put("check.cells.total", totalCellsInspected);
+            values.put("check.cells.p50", cellsPerCheck.getValueAtPercentile(50));
+            values.put("check.cells.p99", cellsPerCheck.getValueAtPercentile(99));
+            values.put("check.cells.max", cellsPerCheck.getMax());
+            return values;
+        }
+    }
+}
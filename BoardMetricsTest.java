@@ -0,0 +1,145 @@
+// BoardMetricsTest.java
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class BoardMetricsTest {
+
+    @Test
+    public void countsEveryOperation() {
+        BoardMetrics metrics = new BoardMetrics();
+        MeteredBoard board = new MeteredBoard(new OptimizedBoard(6, 7), metrics);
+
+        for (int c = 0; c < 4; c++) {
+            board.dropDisc(c, 'X');
+            board.hasConnectFour();
+        }
+        board.undoMove();
+        board.reset();
+
+        BoardMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(4, snapshot.getCount(BoardMetrics.Operation.DROP));
+        assertEquals(4, snapshot.getCount(BoardMetrics.Operation.CHECK));
+        assertEquals("reset's internal undos are not counted", 1, snapshot.getCount(BoardMetrics.Operation.UNDO));
+        assertEquals(1, snapshot.getCount(BoardMetrics.Operation.RESET));
+        assertEquals(4, snapshot.getLatency(BoardMetrics.Operation.DROP).getCount());
+        assertTrue(snapshot.getTotalNanos(BoardMetrics.Operation.DROP) > 0);
+    }
+
+    @Test
+    public void cellsInspectedSeparateNaiveFromLastMoveCheck() {
+        BoardMetrics naiveMetrics = new BoardMetrics();
+        BoardMetrics optimizedMetrics = new BoardMetrics();
+        MeteredBoard naive = new MeteredBoard(new NaiveBoard(20, 20), naiveMetrics);
+        MeteredBoard optimized = new MeteredBoard(new OptimizedBoard(20, 20), optimizedMetrics);
+
+        for (int c = 0; c < 20; c += 2) {
+            naive.dropDisc(c, 'X');
+            optimized.dropDisc(c, 'X');
+        }
+        assertFalse(naive.hasConnectFour());
+        assertFalse(optimized.hasConnectFour());
+
+        long naiveCells = naiveMetrics.snapshot().getTotalCellsInspected();
+        long optimizedCells = optimizedMetrics.snapshot().getTotalCellsInspected();
+        assertTrue("naive scan reads every cell at least once: " + naiveCells, naiveCells >= 400);
+        // at most winLength cells in each of the 8 directions, plus the last disc
+        assertTrue("last-move check reads O(winLength) cells: " + optimizedCells, optimizedCells <= 8 * 4 + 1);
+    }
+
+    @Test
+    public void onlyCallsThroughTheWrapperAreRecorded() {
+        BoardMetrics metrics = new BoardMetrics();
+        ConnectFourBoard board = new BitboardBoard(6, 7);
+        MeteredBoard metered = new MeteredBoard(board, metrics);
+        metered.dropDisc(0, 'X');
+        board.dropDisc(1, 'O');
+        assertFalse(board.hasConnectFour());
+        assertEquals(2, metered.getBoard().getMoveCount());
+        assertEquals(1, metrics.snapshot().getCount(BoardMetrics.Operation.DROP));
+        assertEquals(0, metrics.snapshot().getCount(BoardMetrics.Operation.CHECK));
+    }
+
+    @Test
+    public void bitboardChecksReportNoCells() {
+        BoardMetrics metrics = new BoardMetrics();
+        for (ConnectFourBoard board : new ConnectFourBoard[] {
+                new BitboardBoard(6, 7), new ClassicBitboardBoard(), new RunLengthBoard(6, 7)}) {
+            MeteredBoard metered = new MeteredBoard(board, metrics);
+            metered.dropDisc(3, 'X');
+            assertFalse(metered.hasConnectFour());
+            assertEquals(-1, board.getCellsInspected());
+        }
+        BoardMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(3, snapshot.getCount(BoardMetrics.Operation.CHECK));
+        assertEquals(0, snapshot.getTotalCellsInspected());
+        assertEquals(0, snapshot.getCellsPerCheck().getCount());
+    }
+
+    @Test
+    public void snapshotExportsFlatNames() {
+        BoardMetrics metrics = new BoardMetrics();
+        MeteredBoard board = new MeteredBoard(new NaiveBoard(6, 7), metrics);
+        board.dropDisc(3, 'X');
+        board.hasConnectFour();
+
+        Map<String, Long> values = metrics.snapshot().toMap();
+        assertEquals(Long.valueOf(1), values.get("drop.count"));
+        assertEquals(Long.valueOf(1), values.get("check.count"));
+        assertTrue(values.get("check.cells.total") >= 42);
+        assertTrue(values.containsKey("reset.nanos.p99"));
+
+        metrics.clear();
+        assertEquals(Long.valueOf(0), metrics.snapshot().toMap().get("drop.count"));
+    }
+
+    @Test
+    public void histogramPercentilesStayWithinBucketPrecision() {
+        LogHistogram histogram = new LogHistogram();
+        for (long v = 1; v <= 10_000; v++) {
+            histogram.record(v);
+        }
+        LogHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(10_000, snapshot.getCount());
+        assertEquals(10_000, snapshot.getMax());
+        long p50 = snapshot.getValueAtPercentile(50);
+        long p99 = snapshot.getValueAtPercentile(99);
+        assertTrue("p50 " + p50, p50 >= 5_000 && p50 <= 5_000 * 17 / 16);
+        assertTrue("p99 " + p99, p99 >= 9_900 && p99 <= 10_000);
+        assertEquals(7, LogHistogram.highestValueIn(LogHistogram.bucketOf(7)));
+        assertEquals(Long.MAX_VALUE, LogHistogram.highestValueIn(LogHistogram.bucketOf(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void emitsJfrEventsWhenEnabled() throws Exception {
+        Path file = Files.createTempFile("board-metrics", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("connectfour.BoardOperation");
+            recording.start();
+            MeteredBoard board = new MeteredBoard(new OptimizedBoard(6, 7), new BoardMetrics());
+            board.dropDisc(0, 'X');
+            board.hasConnectFour();
+            recording.stop();
+            recording.dump(file);
+        }
+        try {
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            assertEquals(2, events.size());
+            RecordedEvent check = events.get(0).getString("operation").equals("check") ? events.get(0) : events.get(1);
+            assertEquals("check", check.getString("operation"));
+            assertEquals("OptimizedBoard", check.getString("board"));
+            assertTrue(check.getLong("cellsInspected") > 0);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
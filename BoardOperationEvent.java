@@ -0,0 +1,30 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one board operation, emitted by {@link MeteredBoard}. Disabled by default; enable it in a
+ * recording with e.g.
+ *   -XX:StartFlightRecording:settings=profile,+connectfour.BoardOperation#enabled=true
+ * or through a custom .jfc file. Set a threshold to keep only slow ones.
+ */
+@Name("connectfour.BoardOperation")
+@Label("Board Operation")
+@Category("Connect Four")
+@Description("A dropDisc, undoMove, hasConnectFour or reset call on an instrumented board")
+@StackTrace(false)
+final class BoardOperationEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Board")
+    String board;
+
+    @Label("Cells Inspected")
+    @Description("Cells read by a win check; -1 for other operations and for boards that do not walk cells")
+    long cellsInspected;
+}
@@ -0,0 +1,313 @@
+import java.util.Arrays;
+
+/**
+ * Immutable copy of a board position that any number of threads may read
+ * while the board itself keeps changing.
+ *
+ * Every player's discs are packed into a {@code long[]} bitboard with the
+ * layout of {@link BitboardBoard} (column-major, rows + 1 bits per column,
+ * guard bands on either side), so a snapshot costs O(words) to take from a
+ * BitboardBoard or ClassicBitboardBoard and O(moves + words) from any
+ * other board, never a walk over all cells. Boards whose bitboards would
+ * not fit in MAX_WORDS, such as huge SparseBoards, get a sparse snapshot
+ * instead: every player's discs as a sorted array of cell keys, taken in
+ * O(moves log moves) and read by binary search. All fields are final and the
+ * arrays are never written after construction, so a snapshot can be handed
+ * to other threads without locking, e.g. through a volatile field the game
+ * thread updates after each move.
+ *
+ * Snapshots of the same position are equal whichever board they were taken
+ * from; {@link #hashCode()} is derived from the Zobrist hash.
+ */
+public final class BoardSnapshot implements WinLineFinder {
+
+    // Largest bitboard a snapshot will allocate per player (128 MB)
+    private static final long MAX_WORDS = 1L << 24;
+    // Row and column steps of the sparse win scan: up, right, down-right, up-right
+    private static final int[][] SPARSE_STEPS = {{-1, 0}, {0, 1}, {1, 1}, {-1, 1}};
+
+    private final int rows;
+    private final int columns;
+    private final int winLength;
+    private final int stride;
+    private final int guard;
+    private final int moveCount;
+    private final long zobristHash;
+    // symbols[id] owns bits[id], or cells[id] in a sparse snapshot
+    private final char[] symbols;
+    // Packed bitboards, null in a sparse snapshot
+    private final long[][] bits;
+    // Sparse snapshot: sorted keys col * rows + row of each player's discs, null when packed
+    private final long[][] cells;
+
+    BoardSnapshot(int rows, int columns, int winLength, int moveCount, long zobristHash,
+                  char[] symbols, long[][] bits) {
+        this(rows, columns, winLength, moveCount, zobristHash, symbols, bits, null);
+    }
+
+    private BoardSnapshot(int rows, int columns, int winLength, int moveCount, long zobristHash,
+                          char[] symbols, long[][] bits, long[][] cells) {
+        this.rows = rows;
+        this.columns = columns;
+        this.winLength = winLength;
+        this.stride = rows + 1;
+        this.guard = BitboardBoard.guardBits(rows, winLength);
+        this.moveCount = moveCount;
+        this.zobristHash = zobristHash;
+        this.symbols = symbols;
+        this.bits = bits;
+        this.cells = cells;
+    }
+
+    /**
+     * Packs the position of any board by replaying its moves into fresh
+     * bitboards, O(moves + words), or into sorted cell keys when the board
+     * is too large to pack, O(moves log moves).
+     */
+    static BoardSnapshot of(ConnectFourBoard board) {
+        int rows = board.getRows();
+        int columns = board.getColumns();
+        int winLength = board.getWinLength();
+        long words = BitboardBoard.packedWords(rows, columns, winLength);
+        if (words > MAX_WORDS) {
+            return sparse(board);
+        }
+        // Not every board registers its symbols, so collect them while replaying
+        PlayerRegistry players = new PlayerRegistry();
+        long[][] bits = new long[2][];
+        int stride = rows + 1;
+        int guard = BitboardBoard.guardBits(rows, winLength);
+        int[] heights = new int[columns];
+        for (int ply = 0; ply < board.getMoveCount(); ply++) {
+            int col = board.getMoveColumn(ply);
+            int row = rows - 1 - heights[col]++;
+            int id = players.idOf(board.getCell(row, col));
+            if (id == bits.length) {
+                bits = Arrays.copyOf(bits, id * 2);
+            }
+            if (bits[id] == null) {
+                bits[id] = new long[(int) words];
+            }
+            int p = guard + col * stride + (rows - 1 - row);
+            bits[id][p >>> 6] |= 1L << p;
+        }
+        char[] symbols = new char[players.size()];
+        for (int id = 0; id < symbols.length; id++) {
+            symbols[id] = players.symbolOf(id);
+        }
+        bits = Arrays.copyOf(bits, symbols.length);
+        return new BoardSnapshot(rows, columns, winLength, board.getMoveCount(), board.getZobristHash(),
+                                 symbols, bits);
+    }
+
+    /** Replays the moves into one list of cell keys per player and sorts them. */
+    static BoardSnapshot sparse(ConnectFourBoard board) {
+        int rows = board.getRows();
+        PlayerRegistry players = new PlayerRegistry();
+        long[][] keys = new long[2][];
+        int[] counts = new int[2];
+        int[] heights = new int[board.getColumns()];
+        for (int ply = 0; ply < board.getMoveCount(); ply++) {
+            int col = board.getMoveColumn(ply);
+            int row = rows - 1 - heights[col]++;
+            int id = players.idOf(board.getCell(row, col));
+            if (id == keys.length) {
+                keys = Arrays.copyOf(keys, id * 2);
+                counts = Arrays.copyOf(counts, id * 2);
+            }
+            if (keys[id] == null) {
+                keys[id] = new long[16];
+            } else if (counts[id] == keys[id].length) {
+                keys[id] = Arrays.copyOf(keys[id], counts[id] * 2);
+            }
+            keys[id][counts[id]++] = (long) col * rows + row;
+        }
+        char[] symbols = new char[players.size()];
+        long[][] cells = new long[symbols.length][];
+        for (int id = 0; id < symbols.length; id++) {
+            symbols[id] = players.symbolOf(id);
+            cells[id] = Arrays.copyOf(keys[id], counts[id]);
+            Arrays.sort(cells[id]);
+        }
+        return new BoardSnapshot(rows, board.getColumns(), board.getWinLength(), board.getMoveCount(),
+                                 board.getZobristHash(), symbols, null, cells);
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getWinLength() {
+        return winLength;
+    }
+
+    /** Number of discs on the board when the snapshot was taken. */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /** The board's {@link ConnectFourBoard#getZobristHash()} when the snapshot was taken. */
+    public long getZobristHash() {
+        return zobristHash;
+    }
+
+    /** Symbol on (row, col), or ' ' if the cell is empty. Row 0 is the top row. */
+    public char getCell(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= columns) {
+            throw new IllegalArgumentException("Invalid cell: " + row + ", " + col);
+        }
+        if (cells != null) {
+            return sparseCell(row, col);
+        }
+        int p = guard + col * stride + (rows - 1 - row);
+        for (int id = 0; id < bits.length; id++) {
+            if (((bits[id][p >>> 6] >>> p) & 1L) != 0L) {
+                return symbols[id];
+            }
+        }
+        return ' ';
+    }
+
+    private char sparseCell(int row, int col) {
+        long key = (long) col * rows + row;
+        for (int id = 0; id < cells.length; id++) {
+            if (Arrays.binarySearch(cells[id], key) >= 0) {
+                return symbols[id];
+            }
+        }
+        return ' ';
+    }
+
+    /** True if some player has {@link #getWinLength()} discs in a line anywhere on the board. */
+    public boolean hasConnectFour() {
+        return findAnyConnectFour() != null;
+    }
+
+    /**
+     * Whole-board scan with the shift-and-AND passes of
+     * {@link BitboardBoard#findAnyConnectFour()}. Allocates one work array
+     * per call, so concurrent readers share nothing.
+     */
+    @Override
+    public WinningLine findAnyConnectFour() {
+        if (cells != null) {
+            return findSparseRun();
+        }
+        if (bits.length == 0) {
+            return null;
+        }
+        long[] scratch = new long[bits[0].length];
+        for (int id = 0; id < bits.length; id++) {
+            // vertical runs go up the column: row - 1 each step
+            WinningLine line = findRun(id, scratch, 1, -1, 0);
+            if (line == null) line = findRun(id, scratch, stride, 0, 1);
+            if (line == null) line = findRun(id, scratch, stride - 1, 1, 1);
+            if (line == null) line = findRun(id, scratch, stride + 1, -1, 1);
+            if (line != null) {
+                return line;
+            }
+        }
+        return null;
+    }
+
+    private WinningLine findRun(int id, long[] scratch, int shift, int rowStep, int colStep) {
+        int p = BitboardBoard.firstRunStart(bits[id], scratch, shift, winLength);
+        if (p < 0) {
+            return null;
+        }
+        int offset = p - guard;
+        return new WinningLine(symbols[id], rows - 1 - offset % stride, offset / stride,
+                               rowStep, colStep, winLength);
+    }
+
+    /**
+     * Sparse counterpart of the bitboard scan: tries every disc as the start
+     * of a line in the four directions the bitboard scan reports, looking the
+     * other cells up by binary search. O(moves * winLength * log moves).
+     */
+    private WinningLine findSparseRun() {
+        for (int id = 0; id < cells.length; id++) {
+            for (long key : cells[id]) {
+                int row = (int) (key % rows);
+                int col = (int) (key / rows);
+                for (int[] step : SPARSE_STEPS) {
+                    if (runFrom(cells[id], row, col, step[0], step[1])) {
+                        return new WinningLine(symbols[id], row, col, step[0], step[1], winLength);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean runFrom(long[] keys, int row, int col, int rowStep, int colStep) {
+        for (int i = 1; i < winLength; i++) {
+            int r = row + i * rowStep;
+            int c = col + i * colStep;
+            if (r < 0 || r >= rows || c >= columns || Arrays.binarySearch(keys, (long) c * rows + r) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BoardSnapshot)) {
+            return false;
+        }
+        BoardSnapshot other = (BoardSnapshot) o;
+        if (rows != other.rows || columns != other.columns || winLength != other.winLength
+                || moveCount != other.moveCount || zobristHash != other.zobristHash) {
+            return false;
+        }
+        // Player ids follow first use, so match the bitboards up by symbol
+        return sameDiscs(this, other) && sameDiscs(other, this);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(zobristHash);
+    }
+
+    /**
+     * True if every player with discs in a has exactly the same discs in b.
+     * Both are packed or both sparse, as that only depends on the board size.
+     */
+    private static boolean sameDiscs(BoardSnapshot a, BoardSnapshot b) {
+        long[][] ours = a.cells != null ? a.cells : a.bits;
+        for (int id = 0; id < ours.length; id++) {
+            long[] theirs = b.discsOf(a.symbols[id]);
+            boolean empty = a.cells != null ? ours[id].length == 0 : isEmpty(ours[id]);
+            if (theirs == null ? !empty : !Arrays.equals(ours[id], theirs)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long[] discsOf(char symbol) {
+        for (int id = 0; id < symbols.length; id++) {
+            if (symbols[id] == symbol) {
+                return cells != null ? cells[id] : bits[id];
+            }
+        }
+        return null;
+    }
+
+    private static boolean isEmpty(long[] words) {
+        for (long w : words) {
+            if (w != 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,19 @@
+/**
+ * Backing store for the cells of a {@link ConnectFourBoard} with a special
+ * layout, such as the tiles of {@link SparseBoard}; dense boards keep their
+ * cells in a {@link ByteCellStorage} instead. Row 0 is the top row, as
+ * everywhere else in the board API; ' ' marks an empty cell.
+ */
+public abstract class CellStorage {
+
+    public abstract char get(int row, int col);
+
+    /** Writes a symbol, or ' ' to empty the cell. */
+    public abstract void set(int row, int col, char symbol);
+
+    /** Empties every cell. */
+    public abstract void clear();
+
+    /** Approximate heap footprint of the cell data. */
+    public abstract long sizeBytes();
+}
@@ -0,0 +1,193 @@
+import java.util.Arrays;
+
+/**
+ * Sparse cell storage for very large boards: the grid is cut into
+ * TILE x TILE tiles that are allocated when their first disc lands and
+ * released when their last disc is taken back, so memory follows the
+ * number of discs on the board rather than its area.
+ *
+ * Tiles live in an open-addressing hash map with primitive {@code long}
+ * keys (tile row << 32 | tile column), linear probing and backward-shift
+ * deletion, so lookups never box. The most recently used tile is cached,
+ * which makes the neighbour walks of a win check mostly map-free.
+ */
+public class ChunkedCellStorage extends CellStorage {
+
+    // Tile edge in cells; 32 x 32 chars = 2 KB per tile
+    static final int TILE = 32;
+    private static final int TILE_SHIFT = 5;
+    private static final long EMPTY_KEY = -1L;
+
+    private long[] keys;
+    private char[][] tiles;
+    private int[] discs;      // discs per tile; the tile is dropped when this reaches 0
+    private int size;
+
+    private long cachedKey = EMPTY_KEY;
+    private char[] cachedTile;
+
+    public ChunkedCellStorage() {
+        allocate(16);
+    }
+
+    @Override
+    public char get(int row, int col) {
+        char[] tile = tile(key(row, col));
+        if (tile == null) {
+            return ' ';
+        }
+        char symbol = tile[offset(row, col)];
+        return symbol == 0 ? ' ' : symbol;
+    }
+
+    @Override
+    public void set(int row, int col, char symbol) {
+        long key = key(row, col);
+        int slot = find(key);
+        if (symbol == ' ') {
+            if (slot < 0 || tiles[slot][offset(row, col)] == 0) {
+                return;
+            }
+            tiles[slot][offset(row, col)] = 0;
+            if (--discs[slot] == 0) {
+                remove(slot);
+            }
+            return;
+        }
+        if (slot < 0) {
+            slot = insert(key);
+        }
+        char[] tile = tiles[slot];
+        if (tile[offset(row, col)] == 0) {
+            discs[slot]++;
+        }
+        tile[offset(row, col)] = symbol;
+    }
+
+    @Override
+    public void clear() {
+        allocate(16);
+    }
+
+    @Override
+    public long sizeBytes() {
+        return (long) size * TILE * TILE * Character.BYTES
+            + (long) keys.length * (Long.BYTES + Integer.BYTES + 8);
+    }
+
+    /** Number of tiles currently allocated. */
+    public int getTileCount() {
+        return size;
+    }
+
+    private static long key(int row, int col) {
+        return ((long) (row >>> TILE_SHIFT) << 32) | (col >>> TILE_SHIFT);
+    }
+
+    private static int offset(int row, int col) {
+        return ((col & (TILE - 1)) << TILE_SHIFT) | (row & (TILE - 1));
+    }
+
+    private char[] tile(long key) {
+        if (key == cachedKey) {
+            return cachedTile;
+        }
+        int slot = find(key);
+        if (slot < 0) {
+            return null;
+        }
+        cachedKey = key;
+        cachedTile = tiles[slot];
+        return cachedTile;
+    }
+
+    private int find(long key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            long k = keys[slot];
+            if (k == key) {
+                return slot;
+            }
+            if (k == EMPTY_KEY) {
+                return -1;
+            }
+        }
+    }
+
+    private int insert(long key) {
+        if ((size + 1) * 4 > keys.length * 3) {
+            rehash(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY_KEY) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        tiles[slot] = new char[TILE * TILE];
+        discs[slot] = 0;
+        size++;
+        return slot;
+    }
+
+    /** Backward-shift deletion keeps probe chains intact without tombstones. */
+    private void remove(int slot) {
+        if (keys[slot] == cachedKey) {
+            cachedKey = EMPTY_KEY;
+            cachedTile = null;
+        }
+        int mask = keys.length - 1;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; keys[next] != EMPTY_KEY; next = (next + 1) & mask) {
+            int home = hash(keys[next]) & mask;
+            // move next into the hole unless its home lies cyclically in (hole, next]
+            boolean stays = hole <= next ? (home > hole && home <= next) : (home > hole || home <= next);
+            if (!stays) {
+                keys[hole] = keys[next];
+                tiles[hole] = tiles[next];
+                discs[hole] = discs[next];
+                hole = next;
+            }
+        }
+        keys[hole] = EMPTY_KEY;
+        tiles[hole] = null;
+        discs[hole] = 0;
+        size--;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        char[][] oldTiles = tiles;
+        int[] oldDiscs = discs;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY_KEY) {
+                continue;
+            }
+            int slot = hash(oldKeys[i]) & mask;
+            while (keys[slot] != EMPTY_KEY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            tiles[slot] = oldTiles[i];
+            discs[slot] = oldDiscs[i];
+            size++;
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY_KEY);
+        tiles = new char[capacity][];
+        discs = new int[capacity];
+        size = 0;
+        cachedKey = EMPTY_KEY;
+        cachedTile = null;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
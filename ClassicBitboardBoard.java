@@ -0,0 +1,252 @@
+/**
+ * Standard 6-row, 7-column board for two players, with each player's discs
+ * in a single {@code long}.
+ *
+ * Layout is column-major with one spare bit on top of every column:
+ *
+ *   .  .  .  .  .  .  .     <- spare bits 6, 13, 20, ... (always 0)
+ *   5 12 19 26 33 40 47
+ *   4 11 18 25 32 39 46
+ *   3 10 17 24 31 38 45
+ *   2  9 16 23 30 37 44
+ *   1  8 15 22 29 36 43
+ *   0  7 14 21 28 35 42
+ *
+ * Neighbours along the four lines are 1 (vertical), 7 (horizontal), 6 and 8
+ * (diagonals) bits apart, and the spare bits stop runs wrapping between
+ * columns, so a win check is four shift-and-AND tests on one long. Other
+ * win lengths K use log2(K) doubling shifts per direction instead.
+ */
+public class ClassicBitboardBoard extends ConnectFourBoard implements WinLineFinder {
+
+    public static final int ROWS = 6;
+    public static final int COLUMNS = 7;
+
+    private static final int HEIGHT = ROWS + 1;
+    // One bit at the bottom of every column
+    private static final long BOTTOM_MASK = 0x40810204081L;
+    // Bit shift of each line direction, then the row and column step it makes (row 0 is the top row)
+    private static final int[][] DIRECTIONS = {
+        {1, -1, 0}, {HEIGHT, 0, 1}, {HEIGHT - 1, 1, 1}, {HEIGHT + 1, -1, 1}
+    };
+
+    private final char firstSymbol;
+    private final char secondSymbol;
+
+    private long firstBits;
+    private long secondBits;
+
+    public ClassicBitboardBoard() {
+        this('X', 'O');
+    }
+
+    public ClassicBitboardBoard(char firstSymbol, char secondSymbol) {
+        this(firstSymbol, secondSymbol, 4);
+    }
+
+    public ClassicBitboardBoard(char firstSymbol, char secondSymbol, int winLength) {
+        super(ROWS, COLUMNS, winLength);
+        if (firstSymbol == ' ' || secondSymbol == ' ' || firstSymbol == secondSymbol) {
+            throw new IllegalArgumentException("need two distinct non-space symbols");
+        }
+        this.firstSymbol = firstSymbol;
+        this.secondSymbol = secondSymbol;
+    }
+
+    @Override
+    protected void clear() {
+        super.clear();
+        firstBits = 0L;
+        secondBits = 0L;
+    }
+
+    @Override
+    public int dropDisc(int column, char symbol) {
+        if (symbol != firstSymbol && symbol != secondSymbol && symbol != ' ') {
+            throw new IllegalArgumentException("Unknown symbol for this board: " + symbol);
+        }
+        return super.dropDisc(column, symbol);
+    }
+
+    @Override
+    protected void onDiscDropped(int row, int col, char symbol) {
+        long bit = bit(row, col);
+        if (symbol == firstSymbol) {
+            firstBits |= bit;
+        } else {
+            secondBits |= bit;
+        }
+    }
+
+    @Override
+    protected void onDiscRemoved(int row, int col, char symbol) {
+        long bit = bit(row, col);
+        if (symbol == firstSymbol) {
+            firstBits &= ~bit;
+        } else {
+            secondBits &= ~bit;
+        }
+    }
+
+    @Override
+    public boolean hasConnectFour() {
+        if (lastRow < 0 || lastCol < 0) {
+            return false;
+        }
+        long bits = grid.get(lastRow, lastCol) == firstSymbol ? firstBits : secondBits;
+        return winLength == 4 ? hasFour(bits) : hasRun(bits, winLength);
+    }
+
+    /** Symbol that moves first from the empty board. */
+    public char getFirstSymbol() {
+        return firstSymbol;
+    }
+
+    public char getSecondSymbol() {
+        return secondSymbol;
+    }
+
+    /** Symbol of the player whose turn it is: the first symbol on an empty board, else the one that did not move last. */
+    public char getSymbolToMove() {
+        if (lastRow < 0) {
+            return firstSymbol;
+        }
+        return grid.get(lastRow, lastCol) == firstSymbol ? secondSymbol : firstSymbol;
+    }
+
+    /**
+     * Shifts the two longs past the snapshot's guard band; O(words), no
+     * replay. This board's layout is the snapshot layout without the guard.
+     */
+    @Override
+    public BoardSnapshot snapshot() {
+        int words = BitboardBoard.wordCount(ROWS, COLUMNS, winLength);
+        int guard = BitboardBoard.guardBits(ROWS, winLength);
+        long[][] bits = {packed(firstBits, words, guard), packed(secondBits, words, guard)};
+        return new BoardSnapshot(ROWS, COLUMNS, winLength, moveCount, getZobristHash(),
+                                 new char[] {firstSymbol, secondSymbol}, bits);
+    }
+
+    private static long[] packed(long bits, int words, int guard) {
+        long[] packed = new long[words];
+        int word = guard >>> 6;
+        int offset = guard & 63;
+        packed[word] = bits << offset;
+        if (offset != 0 && word + 1 < words) {
+            packed[word + 1] = bits >>> (64 - offset);
+        }
+        return packed;
+    }
+
+    /**
+     * True if the player to move wins immediately by playing the given column.
+     * Evaluated on the bitboards without touching the board.
+     */
+    public boolean isWinningMove(int column) {
+        if (!isColumnPlayable(column)) {
+            return false;
+        }
+        long mask = firstBits | secondBits;
+        long landing = (mask + bottomBit(column)) & columnMask(column);
+        long bits = toMoveBits() | landing;
+        return winLength == 4 ? hasFour(bits) : hasRun(bits, winLength);
+    }
+
+    /**
+     * Unique key of the position for alternating play: the bits of the player
+     * to move plus the occupied mask plus the bottom row. Fits in 49 bits.
+     */
+    public long positionKey() {
+        return toMoveBits() + (firstBits | secondBits) + BOTTOM_MASK;
+    }
+
+    /** Key of the left-right mirrored position; columns of {@link #positionKey()} are 7-bit groups without carries. */
+    public static long mirrorKey(long key) {
+        long mirrored = 0L;
+        for (int c = 0; c < COLUMNS; c++) {
+            long column = (key >>> (c * HEIGHT)) & ((1L << HEIGHT) - 1);
+            mirrored |= column << ((COLUMNS - 1 - c) * HEIGHT);
+        }
+        return mirrored;
+    }
+
+    private long toMoveBits() {
+        return getSymbolToMove() == firstSymbol ? firstBits : secondBits;
+    }
+
+    /** True if the given player bitboard contains four in a row in any direction. */
+    static boolean hasFour(long bits) {
+        long m = bits & (bits >>> HEIGHT);          // horizontal
+        if ((m & (m >>> (2 * HEIGHT))) != 0L) return true;
+        m = bits & (bits >>> (HEIGHT - 1));         // diagonal \
+        if ((m & (m >>> (2 * (HEIGHT - 1)))) != 0L) return true;
+        m = bits & (bits >>> (HEIGHT + 1));         // diagonal /
+        if ((m & (m >>> (2 * (HEIGHT + 1)))) != 0L) return true;
+        m = bits & (bits >>> 1);                    // vertical
+        return (m & (m >>> 2)) != 0L;
+    }
+
+    private static long bottomBit(int column) {
+        return 1L << (column * HEIGHT);
+    }
+
+    private static long columnMask(int column) {
+        return ((1L << ROWS) - 1) << (column * HEIGHT);
+    }
+
+    /** True if bits hold k in a row in any direction, using doubling shifts along each direction. */
+    static boolean hasRun(long bits, int k) {
+        if (k > COLUMNS) {
+            return false; // no line on the board is that long (and shifts would wrap)
+        }
+        return hasRun(bits, k, 1) || hasRun(bits, k, HEIGHT)
+            || hasRun(bits, k, HEIGHT - 1) || hasRun(bits, k, HEIGHT + 1);
+    }
+
+    /**
+     * Whole-board check on both players' longs with the same shifts as
+     * {@link #hasRun(long, int)}, returning the lowest line found.
+     */
+    @Override
+    public WinningLine findAnyConnectFour() {
+        if (winLength > COLUMNS) {
+            return null;
+        }
+        WinningLine line = findRun(firstSymbol, firstBits);
+        return line != null ? line : findRun(secondSymbol, secondBits);
+    }
+
+    private WinningLine findRun(char symbol, long bits) {
+        for (int[] d : DIRECTIONS) {
+            long m = runStarts(bits, winLength, d[0]);
+            if (m != 0L) {
+                int p = Long.numberOfTrailingZeros(m);
+                return new WinningLine(symbol, ROWS - 1 - p % HEIGHT, p / HEIGHT, d[1], d[2], winLength);
+            }
+        }
+        return null;
+    }
+
+    private static boolean hasRun(long bits, int k, int shift) {
+        return runStarts(bits, k, shift) != 0L;
+    }
+
+    /** Bits p such that p, p + shift, ..., p + (k - 1) * shift are all set in bits. */
+    private static long runStarts(long bits, int k, int shift) {
+        long m = bits;
+        int len = 1;
+        while (len * 2 <= k) {
+            m &= m >>> (len * shift);
+            len *= 2;
+        }
+        if (len < k) {
+            m &= m >>> ((k - len) * shift);
+        }
+        return m;
+    }
+
+    /** Bit of (row, col); row 0 is the top row as in {@link ConnectFourBoard}. */
+    private static long bit(int row, int col) {
+        return 1L << (col * HEIGHT + (ROWS - 1 - row));
+    }
+}
@@ -1,31 +1,134 @@
 // ConnectFourBoard.java
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
 public abstract class ConnectFourBoard {
 
     protected final int rows;
     protected final int columns;
-    protected final char[][] grid;
+    // Discs in a line needed to win; 4 for classic connect-four
+    protected final int winLength;
+    // Dense ids for the symbols played on this board, in order of first use
+    protected final PlayerRegistry players = new PlayerRegistry();
+
+    // Cell contents as flat column-major bytes. The concrete final class keeps every
+    // access a direct, inlinable call; null on boards that supply their own storage
+    protected final ByteCellStorage grid;
+    // Cells of boards with a special layout (SparseBoard); null on dense boards
+    private final CellStorage storage;
+
+    // Discs per column; the next disc in column c lands on row rows - 1 - heights[c]
+    protected final int[] heights;
+    protected int moveCount;
+
+    // Dense set of columns that still have room: playable[0 .. playableCount), ordered by the
+    // moves played so far; playableIndex[c] is the position of column c in it (swap-remove
+    // when a column fills up, exactly reversed by undoMove)
+    private final int[] playable;
+    private final int[] playableIndex;
+    private int playableCount;
+
+    // rows * columns, as a long so that huge sparse boards do not overflow
+    private final long area;
+
+    // Columns played so far, oldest first; grown on demand up to rows * columns entries.
+    // Doubles as the journal of touched cells that lets reset() undo only those.
+    private int[] moveColumns;
+
+    // Roughly how many cells a bulk clear() empties in the time one undoMove() takes
+    private static final int CELLS_PER_UNDO = 32;
+
+    // Largest array the JVM reliably allocates; caps the move stack on huge boards
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+    // Zobrist hash of the position, updated on every drop and undo;
+    // zobristTables[playerId] caches the shared key table of that player's symbol
+    private final ZobristKeys zobrist;
+    private long[][] zobristTables = new long[2][];
+    private long hash;
 
     // Last move (used by optimized versions)
     protected int lastRow = -1;
     protected int lastCol = -1;
 
     public ConnectFourBoard(int rows, int columns) {
+        this(rows, columns, 4);
+    }
+
+    /**
+     * @param winLength number of same-symbol discs in a line that wins (connect-K)
+     */
+    public ConnectFourBoard(int rows, int columns, int winLength) {
+        this(rows, columns, winLength, null);
+    }
+
+    /**
+     * @param storage cell storage for boards that need a special layout, or
+     *                null for the default dense {@link ByteCellStorage}.
+     *                Boards with their own storage must read cells through
+     *                {@link #cellAt}, as {@link #grid} is null for them.
+     */
+    protected ConnectFourBoard(int rows, int columns, int winLength, CellStorage storage) {
         if (rows <= 0 || columns <= 0) {
             throw new IllegalArgumentException("rows and columns must be positive");
         }
+        if (winLength <= 0) {
+            throw new IllegalArgumentException("winLength must be positive");
+        }
         this.rows = rows;
         this.columns = columns;
-        this.grid = new char[rows][columns];
-        reset();
+        this.winLength = winLength;
+        this.storage = storage;
+        this.grid = storage == null ? new ByteCellStorage(rows, columns, players) : null;
+        this.heights = new int[columns];
+        this.playable = new int[columns];
+        this.playableIndex = new int[columns];
+        this.area = (long) rows * columns;
+        this.moveColumns = new int[(int) Math.min(area, 64)];
+        this.zobrist = ZobristKeys.forSize(rows, columns);
+        for (int c = 0; c < columns; c++) {
+            playable[c] = c;
+            playableIndex[c] = c;
+        }
+        playableCount = columns;
     }
 
-    /** Sets all cells to empty and clears last move info. */
+    /**
+     * Sets all cells to empty and clears column heights and last move info.
+     *
+     * Short games are taken back move by move, touching only the cells and
+     * columns they used (O(moves)); once that would cost more than wiping
+     * everything, falls back to {@link #clear()} (O(rows * columns)).
+     */
     public void reset() {
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < columns; c++) {
-                grid[r][c] = ' ';
+        if ((long) moveCount * CELLS_PER_UNDO < area) {
+            while (moveCount > 0) {
+                undoMove();
             }
+        } else {
+            clear();
+        }
+    }
+
+    /**
+     * Bulk reset of the whole board. Subclasses with extra state override
+     * this, clear their state wholesale and call super.clear().
+     */
+    protected void clear() {
+        if (grid != null) {
+            grid.clear();
+        } else {
+            storage.clear();
+        }
+        for (int c = 0; c < columns; c++) {
+            heights[c] = 0;
+            playable[c] = c;
+            playableIndex[c] = c;
         }
+        playableCount = columns;
+        moveCount = 0;
+        hash = 0L;
         lastRow = -1;
         lastCol = -1;
     }
@@ -44,30 +147,209 @@ public abstract class ConnectFourBoard {
             throw new IllegalArgumentException("Symbol cannot be space");
         }
 
-        for (int r = rows - 1; r >= 0; r--) {
-            if (grid[r][column] == ' ') {
-                grid[r][column] = symbol;
-                lastRow = r;
-                lastCol = column;
-                return r;
-            }
+        int height = heights[column];
+        if (height == rows) {
+            return -1; // column full
         }
-        return -1; // column full
+        int r = rows - 1 - height;
+        setCell(r, column, symbol);
+        heights[column] = height + 1;
+        if (height + 1 == rows) {
+            removePlayable(column);
+        }
+        if (moveCount == moveColumns.length) {
+            moveColumns = Arrays.copyOf(moveColumns, (int) Math.min(moveCount * 2L, Math.min(area, MAX_ARRAY_LENGTH)));
+        }
+        moveColumns[moveCount++] = column;
+        hash ^= zobristKey(r, column, symbol) ^ ZobristKeys.SIDE_TO_MOVE;
+        lastRow = r;
+        lastCol = column;
+        onDiscDropped(r, column, symbol);
+        return r;
     }
 
-    /** True if the board has no empty cells left. */
-    public boolean isFull() {
-        for (int c = 0; c < columns; c++) {
-            if (grid[0][c] == ' ') {
-                return false;
+    /**
+     * Takes back the most recent disc, restoring the cell, column height and
+     * last move info exactly as they were before it was dropped.
+     * @return column the disc was removed from, or -1 if the board is empty
+     */
+    public int undoMove() {
+        if (moveCount == 0) {
+            return -1;
+        }
+        int column = moveColumns[--moveCount];
+        int height = heights[column] - 1;
+        int r = rows - 1 - height;
+        char symbol = cellAt(r, column);
+        setCell(r, column, ' ');
+        if (height + 1 == rows) {
+            restorePlayable(column);
+        }
+        heights[column] = height;
+        hash ^= zobristKey(r, column, symbol) ^ ZobristKeys.SIDE_TO_MOVE;
+
+        if (moveCount == 0) {
+            lastRow = -1;
+            lastCol = -1;
+        } else {
+            lastCol = moveColumns[moveCount - 1];
+            lastRow = rows - heights[lastCol];
+        }
+        onDiscRemoved(r, column, symbol);
+        return column;
+    }
+
+    /**
+     * Makes this board hold the same position as source by replaying its
+     * moves in order, so that undoMove() walks back the same history.
+     * Works across implementations of the same size. O(moves).
+     */
+    public void copyFrom(ConnectFourBoard source) {
+        if (source.rows != rows || source.columns != columns || source.winLength != winLength) {
+            throw new IllegalArgumentException("board sizes or win lengths differ");
+        }
+        reset();
+        for (int ply = 0; ply < source.moveCount; ply++) {
+            int column = source.moveColumns[ply];
+            // discs never move, so the source cell this disc lands on holds its symbol
+            dropDisc(column, source.getCell(rows - 1 - heights[column], column));
+        }
+    }
+
+    /**
+     * Immutable copy of the current position that other threads may read
+     * while this board keeps playing. Must be called by the thread that
+     * plays on the board; the snapshot itself needs no synchronisation.
+     * O(moves + words) here, cheaper in boards that keep packed bitboards;
+     * boards too large to pack get a sparse snapshot in O(moves log moves).
+     */
+    public BoardSnapshot snapshot() {
+        return BoardSnapshot.of(this);
+    }
+
+    /**
+     * Picks a uniformly random column that still has room, in O(1).
+     * @return the column, or -1 if the board is full
+     */
+    public int randomPlayableColumn(RandomGenerator random) {
+        if (playableCount == 0) {
+            return -1;
+        }
+        return playable[random.nextInt(playableCount)];
+    }
+
+    /** Number of columns that still have room. */
+    public int getPlayableColumnCount() {
+        return playableCount;
+    }
+
+    /**
+     * Plays random moves from the current position until someone connects
+     * four or the board is full. Every move goes to a uniformly random
+     * non-full column, so there are no retries, and nothing is allocated.
+     * @param first symbol to move next
+     * @param second the other player's symbol
+     * @return the winning symbol, or ' ' if the board filled up without a win
+     */
+    public char playout(RandomGenerator random, char first, char second) {
+        char current = first;
+        while (playableCount > 0) {
+            dropDisc(playable[random.nextInt(playableCount)], current);
+            if (hasConnectFour()) {
+                return current;
             }
+            current = (current == first) ? second : first;
+        }
+        return ' ';
+    }
+
+    private void removePlayable(int column) {
+        int index = playableIndex[column];
+        int lastColumn = playable[--playableCount];
+        playable[index] = lastColumn;
+        playableIndex[lastColumn] = index;
+    }
+
+    /**
+     * Inverse of removePlayable: playableIndex[column] still holds the slot the
+     * column left, so its current occupant goes back to the end and the column
+     * back into it. Undoing moves therefore restores the exact order of
+     * playable[], and a board taken back to some position plays out from there
+     * like one that never left it.
+     */
+    private void restorePlayable(int column) {
+        int index = playableIndex[column];
+        int occupant = playable[index];
+        playable[playableCount] = occupant;
+        playableIndex[occupant] = playableCount;
+        playableCount++;
+        playable[index] = column;
+        playableIndex[column] = index;
+    }
+
+    /** Random key XORed into the hash for symbol on (row, col). */
+    protected long zobristKey(int row, int col, char symbol) {
+        int id = players.idOf(symbol);
+        if (id >= zobristTables.length) {
+            zobristTables = Arrays.copyOf(zobristTables, Math.max(id + 1, zobristTables.length * 2));
         }
-        return true;
+        long[] keys = zobristTables[id];
+        if (keys == null) {
+            keys = zobrist.table(symbol);
+            zobristTables[id] = keys;
+        }
+        return keys[col * rows + row];
+    }
+
+    /** Hook for subclasses keeping extra state: called after a disc landed on (row, col). */
+    protected void onDiscDropped(int row, int col, char symbol) {
+    }
+
+    /** Hook for subclasses keeping extra state: called after the disc on (row, col) was taken back. */
+    protected void onDiscRemoved(int row, int col, char symbol) {
+    }
+
+    /** True if another disc fits into the given column. O(1). */
+    public boolean isColumnPlayable(int column) {
+        return heights[column] < rows;
     }
 
-    /** Subclasses implement their own win check logic. */
+    /** True if the board has no empty cells left. O(1). */
+    public boolean isFull() {
+        return moveCount == area;
+    }
+
+    /**
+     * True if some player has {@link #getWinLength()} discs in a line.
+     * Subclasses implement their own win check logic.
+     */
     public abstract boolean hasConnectFour();
 
+    /**
+     * Cells read by the most recent {@link #hasConnectFour()} call, for
+     * boards whose win check walks cells; -1 (the default) for boards that
+     * judge bitboards or counters, where a cell count says nothing.
+     * Reported to {@link BoardMetrics} by {@link MeteredBoard}.
+     */
+    public long getCellsInspected() {
+        return -1;
+    }
+
+    /**
+     * Cells a walk from (row, col) in direction (dr, dc) read when it found a
+     * run of matching cells: the run, plus the cell that ended it if that is
+     * on the board and the walk had not reached winLength. Lets cell-walking
+     * boards derive {@link #getCellsInspected()} from their run lengths.
+     */
+    protected final int cellsRead(int row, int col, int dr, int dc, int run) {
+        if (run >= winLength) {
+            return run;
+        }
+        int r = row + run * dr;
+        int c = col + run * dc;
+        return r >= 0 && r < rows && c >= 0 && c < columns ? run + 1 : run;
+    }
+
     // --- Accessors (handy for tests / demos / advanced variants) ---
 
     public int getRows() {
@@ -78,6 +360,42 @@ public abstract class ConnectFourBoard {
         return columns;
     }
 
+    public int getWinLength() {
+        return winLength;
+    }
+
+    /** Symbols played on this board and their dense ids. */
+    public PlayerRegistry getPlayers() {
+        return players;
+    }
+
+    /** Number of discs currently in the given column. */
+    public int getHeight(int column) {
+        return heights[column];
+    }
+
+    /** Number of discs on the board. */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /** Column of the disc played at the given ply (0 = first disc on the board). */
+    public int getMoveColumn(int ply) {
+        if (ply < 0 || ply >= moveCount) {
+            throw new IllegalArgumentException("Invalid ply: " + ply);
+        }
+        return moveColumns[ply];
+    }
+
+    /**
+     * 64-bit Zobrist hash of the position, including whose turn it is.
+     * Equal positions reached in any move order hash alike, on any board
+     * implementation of the same size. Maintained in O(1) per move.
+     */
+    public long getZobristHash() {
+        return hash;
+    }
+
     public int getLastRow() {
         return lastRow;
     }
@@ -87,13 +405,35 @@ public abstract class ConnectFourBoard {
     }
 
     public char getCell(int row, int col) {
-        return grid[row][col];
+        return cellAt(row, col);
+    }
+
+    /**
+     * Cell read for code shared by dense and custom-storage boards. Dense
+     * boards take the first branch, a direct call into ByteCellStorage, so
+     * the storage abstraction never shows up on their hot path.
+     */
+    protected final char cellAt(int row, int col) {
+        return grid != null ? grid.get(row, col) : storage.get(row, col);
+    }
+
+    private void setCell(int row, int col, char symbol) {
+        if (grid != null) {
+            grid.set(row, col, symbol);
+        } else {
+            storage.set(row, col, symbol);
+        }
+    }
+
+    /** The storage passed to the constructor, or null on dense boards. */
+    protected CellStorage getStorage() {
+        return storage;
     }
 
     public void printBoard() {
         for (int r = 0; r < rows; r++) {
             for (int c = 0; c < columns; c++) {
-                System.out.print("[" + grid[r][c] + "]");
+                System.out.print("[" + cellAt(r, c) + "]");
             }
             System.out.println();
         }
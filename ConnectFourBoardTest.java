@@ -3,6 +3,13 @@
 import static org.junit.Assert.*;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
 public class ConnectFourBoardTest {
 
     private static final int ROWS = 6;
@@ -11,10 +18,22 @@ public class ConnectFourBoardTest {
     private ConnectFourBoard[] boardsUnderTest() {
         return new ConnectFourBoard[] {
             new NaiveBoard(ROWS, COLUMNS),
+            new OptimizedBoard(ROWS, COLUMNS),
+            new BitboardBoard(ROWS, COLUMNS),
+            new ClassicBitboardBoard(),
+            new RunLengthBoard(ROWS, COLUMNS),
+            new SparseBoard(ROWS, COLUMNS),
             new Optimized(ROWS, COLUMNS)
         };
     }
 
+    /** The boards under test without the Optimized exercise stub, whose win check is not implemented. */
+    private ConnectFourBoard[] implementedBoards() {
+        return Arrays.stream(boardsUnderTest())
+            .filter(board -> !(board instanceof Optimized))
+            .toArray(ConnectFourBoard[]::new);
+    }
+
     @Test
     public void emptyBoardHasNoWin() {
         for (ConnectFourBoard board : boardsUnderTest()) {
@@ -123,6 +142,623 @@ public class ConnectFourBoardTest {
         }
     }
 
+    @Test
+    public void fullColumnRejectsDisc() {
+        for (ConnectFourBoard board : boardsUnderTest()) {
+            for (int i = 0; i < ROWS; i++) {
+                assertEquals(label(board, "disc lands on next free row"), ROWS - 1 - i, board.dropDisc(2, i % 2 == 0 ? 'X' : 'O'));
+            }
+            assertEquals(label(board, "height tracks discs"), ROWS, board.getHeight(2));
+            assertFalse(label(board, "full column not playable"), board.isColumnPlayable(2));
+            assertEquals(label(board, "full column rejects disc"), -1, board.dropDisc(2, 'X'));
+            assertEquals(label(board, "rejected disc not counted"), ROWS, board.getMoveCount());
+        }
+    }
+
+    @Test
+    public void isFullTracksMoveCount() {
+        for (ConnectFourBoard board : implementedBoards()) {
+            fillWithoutWin(board);
+            assertTrue(label(board, "board should be full"), board.isFull());
+            assertFalse(label(board, "filled board has no win"), board.hasConnectFour());
+
+            board.reset();
+
+            assertFalse(label(board, "board not full after reset"), board.isFull());
+            assertEquals(label(board, "move count reset"), 0, board.getMoveCount());
+            assertEquals(label(board, "heights reset"), 0, board.getHeight(0));
+            assertTrue(label(board, "column playable after reset"), board.isColumnPlayable(0));
+        }
+    }
+
+    @Test
+    public void undoOnEmptyBoardIsNoOp() {
+        for (ConnectFourBoard board : boardsUnderTest()) {
+            assertEquals(label(board, "nothing to undo"), -1, board.undoMove());
+            assertEquals(label(board, "move count untouched"), 0, board.getMoveCount());
+        }
+    }
+
+    @Test
+    public void undoRestoresPreviousPosition() {
+        for (ConnectFourBoard board : implementedBoards()) {
+            playDiagonalWin(board, 'X');
+            assertTrue(label(board, "sanity check win before undo"), board.hasConnectFour());
+
+            assertEquals(label(board, "undo returns column"), 3, board.undoMove());
+
+            assertFalse(label(board, "win gone after undo"), board.hasConnectFour());
+            assertEquals(label(board, "cell cleared by undo"), ' ', board.getCell(2, 3));
+            assertEquals(label(board, "height restored"), 3, board.getHeight(3));
+            assertEquals(label(board, "lastRow restored"), 3, board.getLastRow());
+            assertEquals(label(board, "lastCol restored"), 3, board.getLastCol());
+
+            board.dropDisc(3, 'X');
+            assertTrue(label(board, "replaying move restores win"), board.hasConnectFour());
+        }
+    }
+
+    @Test
+    public void undoAllMatchesFreshBoard() {
+        for (ConnectFourBoard board : implementedBoards()) {
+            playDualLineWin(board, 'O');
+            while (board.undoMove() >= 0) {
+                // unwind everything
+            }
+            assertEquals(label(board, "lastRow cleared"), -1, board.getLastRow());
+            assertEquals(label(board, "lastCol cleared"), -1, board.getLastCol());
+            for (int r = 0; r < ROWS; r++) {
+                for (int c = 0; c < COLUMNS; c++) {
+                    assertEquals(label(board, "cell empty"), ' ', board.getCell(r, c));
+                }
+            }
+
+            playHorizontalWin(board, 'X');
+            assertTrue(label(board, "board usable after unwinding"), board.hasConnectFour());
+        }
+    }
+
+    @Test
+    public void randomMakeUnmakeAgreesWithNaiveScan() {
+        for (ConnectFourBoard board : implementedBoards()) {
+            ConnectFourBoard reference = new NaiveBoard(ROWS, COLUMNS);
+            Random random = new Random(7);
+            for (int step = 0; step < 2000; step++) {
+                int column = random.nextInt(COLUMNS);
+                if (random.nextInt(3) == 0 || !board.isColumnPlayable(column)) {
+                    assertEquals(label(board, "undo in step"), reference.undoMove(), board.undoMove());
+                    continue;
+                }
+                char symbol = random.nextBoolean() ? 'X' : 'O';
+                assertEquals(label(board, "drop in step"), reference.dropDisc(column, symbol), board.dropDisc(column, symbol));
+                boolean win = reference.hasConnectFour();
+                assertEquals(label(board, "win check after make/unmake"), win, board.hasConnectFour());
+                if (win) {
+                    // keep the position win-free so last-move checks and full scans stay comparable
+                    reference.undoMove();
+                    board.undoMove();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void multiWordBoardsAgreeWithNaiveScan() {
+        int rows = 20;
+        int columns = 70;
+        ConnectFourBoard[] boards = {
+            new OptimizedBoard(rows, columns),
+            new BitboardBoard(rows, columns),
+            new RunLengthBoard(rows, columns),
+            new SparseBoard(rows, columns)
+        };
+        for (ConnectFourBoard board : boards) {
+            ConnectFourBoard reference = new NaiveBoard(rows, columns);
+            Random random = new Random(11);
+            int wins = 0;
+            for (int step = 0; step < 3000; step++) {
+                // play in a narrow band of columns so lines actually form
+                int column = 30 + random.nextInt(6);
+                char symbol = random.nextBoolean() ? 'X' : 'O';
+                if (reference.dropDisc(column, symbol) < 0) {
+                    reference.reset();
+                    board.reset();
+                    continue;
+                }
+                board.dropDisc(column, symbol);
+                boolean win = reference.hasConnectFour();
+                assertEquals(label(board, "win check on multi-word board"), win, board.hasConnectFour());
+                if (win) {
+                    wins++;
+                    reference.undoMove();
+                    board.undoMove();
+                }
+            }
+            assertTrue(label(board, "random play should produce wins"), wins > 0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void classicBoardRejectsThirdSymbol() {
+        new ClassicBitboardBoard().dropDisc(0, 'Z');
+    }
+
+    @Test
+    public void zobristHashIgnoresMoveOrder() {
+        for (ConnectFourBoard board : boardsUnderTest()) {
+            assertEquals(label(board, "empty board hashes to 0"), 0L, board.getZobristHash());
+            board.dropDisc(0, 'X');
+            board.dropDisc(1, 'O');
+            board.dropDisc(2, 'X');
+            long hash = board.getZobristHash();
+
+            board.reset();
+            board.dropDisc(2, 'X');
+            board.dropDisc(1, 'O');
+            board.dropDisc(0, 'X');
+            assertEquals(label(board, "transposition hashes alike"), hash, board.getZobristHash());
+            assertEquals(label(board, "same hash on other implementations"), hash, hashOf(new NaiveBoard(ROWS, COLUMNS)));
+
+            board.undoMove();
+            assertNotEquals(label(board, "undo changes hash"), hash, board.getZobristHash());
+            board.dropDisc(0, 'O');
+            assertNotEquals(label(board, "symbol is part of the hash"), hash, board.getZobristHash());
+        }
+    }
+
+    @Test
+    public void playableColumnsTrackFullColumns() {
+        for (ConnectFourBoard board : boardsUnderTest()) {
+            for (int i = 0; i < ROWS; i++) {
+                board.dropDisc(4, i % 2 == 0 ? 'X' : 'O');
+            }
+            assertEquals(label(board, "full column leaves the set"), COLUMNS - 1, board.getPlayableColumnCount());
+            Random random = new Random(1);
+            for (int i = 0; i < 200; i++) {
+                assertNotEquals(label(board, "full column never drawn"), 4, board.randomPlayableColumn(random));
+            }
+            board.undoMove();
+            assertEquals(label(board, "undo puts column back"), COLUMNS, board.getPlayableColumnCount());
+        }
+    }
+
+    @Test
+    public void playoutRunsToTheEnd() {
+        for (ConnectFourBoard board : implementedBoards()) {
+            Random random = new Random(5);
+            for (int game = 0; game < 50; game++) {
+                board.reset();
+                char winner = board.playout(random, 'X', 'O');
+                if (winner == ' ') {
+                    assertTrue(label(board, "draw only on full board"), board.isFull());
+                    assertEquals(label(board, "full board has no playable column"), -1, board.randomPlayableColumn(random));
+                } else {
+                    assertTrue(label(board, "playout stops at a win"), board.hasConnectFour());
+                    assertEquals(label(board, "winner made last move"), winner, board.getCell(board.getLastRow(), board.getLastCol()));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void playoutAfterUndoMatchesFreshBoard() {
+        ConnectFourBoard[] used = implementedBoards();
+        ConnectFourBoard[] fresh = implementedBoards();
+        for (int i = 0; i < used.length; i++) {
+            for (long seed = 0; seed < 20; seed++) {
+                used[i].playout(new Random(seed + 100), 'X', 'O');
+                while (used[i].undoMove() >= 0) {
+                    // take everything back move by move
+                }
+                fresh[i].reset();
+                assertSamePlayout(used[i], fresh[i], seed);
+            }
+        }
+    }
+
+    @Test
+    public void playoutAfterResetMatchesFreshBoard() {
+        // Wide and shallow, so reset() takes the moves back instead of clearing
+        List<Supplier<ConnectFourBoard>> factories = List.of(
+            () -> new NaiveBoard(2, 1000, 2),
+            () -> new BitboardBoard(2, 1000, 2),
+            () -> new BitboardBoard(1, 1000, 2));
+        for (Supplier<ConnectFourBoard> factory : factories) {
+            ConnectFourBoard used = factory.get();
+            for (long seed = 0; seed < 500; seed++) {
+                used.playout(new Random(seed + 100), 'X', 'O');
+                used.reset();
+                assertSamePlayout(used, factory.get(), seed);
+            }
+        }
+    }
+
+    /** Plays out both boards with the same seed and checks they end on the same position. */
+    private void assertSamePlayout(ConnectFourBoard used, ConnectFourBoard fresh, long seed) {
+        char a = used.playout(new Random(seed), 'X', 'O');
+        char b = fresh.playout(new Random(seed), 'X', 'O');
+        assertEquals(label(used, "same winner"), b, a);
+        assertEquals(label(used, "same length"), fresh.getMoveCount(), used.getMoveCount());
+        assertEquals(label(used, "same position"), fresh.getZobristHash(), used.getZobristHash());
+    }
+
+    @Test
+    public void winLengthIsConfigurable() {
+        ConnectFourBoard[] boards = {
+            new NaiveBoard(ROWS, COLUMNS, 5),
+            new OptimizedBoard(ROWS, COLUMNS, 5),
+            new BitboardBoard(ROWS, COLUMNS, 5),
+            new ClassicBitboardBoard('X', 'O', 5),
+            new RunLengthBoard(ROWS, COLUMNS, 5)
+        };
+        for (ConnectFourBoard board : boards) {
+            assertEquals(5, board.getWinLength());
+            playDiagonalWin(board, 'X');
+            assertFalse(label(board, "four is not enough for connect-5"), board.hasConnectFour());
+            board.reset();
+            for (int c = 0; c < 4; c++) {
+                board.dropDisc(c, 'O');
+            }
+            assertFalse(label(board, "four in a row is not connect-5"), board.hasConnectFour());
+            board.dropDisc(4, 'O');
+            assertTrue(label(board, "five in a row wins"), board.hasConnectFour());
+        }
+    }
+
+    @Test
+    public void connectKBoardsAgreeWithNaiveScan() {
+        int rows = 45;
+        int columns = 60;
+        for (int k : new int[] {3, 5, 6}) {
+            ConnectFourBoard[] boards = {
+                new OptimizedBoard(rows, columns, k),
+                new BitboardBoard(rows, columns, k),
+                new RunLengthBoard(rows, columns, k)
+            };
+            for (ConnectFourBoard board : boards) {
+                ConnectFourBoard reference = new NaiveBoard(rows, columns, k);
+                Random random = new Random(k);
+                int wins = 0;
+                for (int step = 0; step < 3000; step++) {
+                    // a narrow band of columns and a 3:1 symbol mix so long lines form
+                    int column = random.nextInt(Math.min(columns, k + 2));
+                    char symbol = random.nextInt(4) == 0 ? 'O' : 'X';
+                    if (reference.dropDisc(column, symbol) < 0) {
+                        reference.reset();
+                        board.reset();
+                        continue;
+                    }
+                    board.dropDisc(column, symbol);
+                    boolean win = reference.hasConnectFour();
+                    assertEquals(label(board, "connect-" + k + " check"), win, board.hasConnectFour());
+                    if (win) {
+                        wins++;
+                        reference.undoMove();
+                        board.undoMove();
+                    }
+                }
+                assertTrue(label(board, "connect-" + k + " wins occur"), wins > 0);
+            }
+        }
+
+        // Longer than the 32 cells BitboardBoard gathers into one word
+        ConnectFourBoard longLines = new BitboardBoard(rows, columns, 40);
+        for (int c = 0; c < 39; c++) {
+            longLines.dropDisc(c + 1, 'X');
+        }
+        assertFalse(label(longLines, "39 in a row is not connect-40"), longLines.hasConnectFour());
+        longLines.dropDisc(0, 'X');
+        assertTrue(label(longLines, "40 in a row wins"), longLines.hasConnectFour());
+        for (int r = 1; r < 40; r++) {
+            longLines.dropDisc(50, 'O');
+        }
+        assertFalse(label(longLines, "39 stacked is not connect-40"), longLines.hasConnectFour());
+        longLines.dropDisc(50, 'O');
+        assertTrue(label(longLines, "40 stacked wins"), longLines.hasConnectFour());
+    }
+
+    @Test
+    public void cellsKeepAnySymbol() {
+        ConnectFourBoard board = new OptimizedBoard(ROWS, COLUMNS);
+        char[] symbols = {'X', '\u263A', 'z', '\u00E9'};
+        for (int c = 0; c < symbols.length; c++) {
+            board.dropDisc(c, symbols[c]);
+            board.dropDisc(c, symbols[(c + 1) % symbols.length]);
+        }
+        for (int c = 0; c < symbols.length; c++) {
+            assertEquals(symbols[c], board.getCell(ROWS - 1, c));
+            assertEquals(symbols[(c + 1) % symbols.length], board.getCell(ROWS - 2, c));
+            assertEquals(' ', board.getCell(ROWS - 3, c));
+        }
+    }
+
+    @Test
+    public void findAnyConnectFourAgreesWithNaiveScan() {
+        Random random = new Random(20);
+        int[][] shapes = {{6, 7, 4}, {6, 7, 3}, {6, 7, 5}, {9, 70, 4}, {40, 3, 6}, {12, 12, 40}};
+        for (int[] shape : shapes) {
+            for (int game = 0; game < 200; game++) {
+                int rows = shape[0];
+                int columns = shape[1];
+                int k = shape[2];
+                NaiveBoard oracle = new NaiveBoard(rows, columns, k);
+                BitboardBoard bitboard = new BitboardBoard(rows, columns, k);
+                ClassicBitboardBoard classic = rows == 6 && columns == 7 ? new ClassicBitboardBoard('X', 'O', k) : null;
+                int discs = random.nextInt(rows * columns + 1);
+                for (int i = 0; i < discs; i++) {
+                    int column = random.nextInt(columns);
+                    char symbol = random.nextBoolean() ? 'X' : 'O';
+                    if (oracle.dropDisc(column, symbol) >= 0) {
+                        bitboard.dropDisc(column, symbol);
+                        if (classic != null) {
+                            classic.dropDisc(column, symbol);
+                        }
+                    }
+                }
+                boolean expected = oracle.hasConnectFour();
+                assertWinningLine(oracle, bitboard.findAnyConnectFour(), expected);
+                if (classic != null) {
+                    assertWinningLine(oracle, classic.findAnyConnectFour(), expected);
+                }
+            }
+        }
+    }
+
+    private static void assertWinningLine(ConnectFourBoard oracle, WinningLine line, boolean expected) {
+        assertEquals("line found iff the naive scan finds one", expected, line != null);
+        if (line == null) {
+            return;
+        }
+        assertEquals(oracle.getWinLength(), line.getLength());
+        for (int i = 0; i < line.getLength(); i++) {
+            assertEquals(line.toString(), line.getWinner(), oracle.getCell(line.getRow(i), line.getColumn(i)));
+        }
+    }
+
+    @Test
+    public void bitboardTracksManyPlayers() {
+        BitboardBoard board = new BitboardBoard(ROWS, COLUMNS);
+        char[] symbols = {'A', 'Z', '\u263A'};
+        for (int c = 0; c < symbols.length; c++) {
+            for (int i = 0; i < 3; i++) {
+                board.dropDisc(c, symbols[c]);
+                assertFalse("three in a column is not a win", board.hasConnectFour());
+            }
+        }
+        assertEquals(3, board.getPlayers().size());
+        board.dropDisc(2, '\u263A');
+        assertTrue("non-ASCII player wins vertically", board.hasConnectFour());
+        board.undoMove();
+        board.dropDisc(0, 'A');
+        assertTrue("first player wins vertically", board.hasConnectFour());
+
+        board.reset();
+        for (int c = 0; c < 3; c++) {
+            board.dropDisc(c, 'Z');
+        }
+        assertFalse("reset clears every player's bitboard", board.hasConnectFour());
+        board.dropDisc(3, 'Z');
+        assertTrue(board.hasConnectFour());
+    }
+
+    @Test
+    public void resetOfShortGameOnLargeBoardClearsEverything() {
+        ConnectFourBoard[] boards = {
+            new NaiveBoard(30, 40),
+            new OptimizedBoard(30, 40),
+            new BitboardBoard(30, 40),
+            new RunLengthBoard(30, 40)
+        };
+        for (ConnectFourBoard board : boards) {
+            // few moves on a big board: reset takes them back instead of wiping the grid
+            playVerticalWin(board, 'X');
+            board.dropDisc(1, 'Q');
+            board.reset();
+
+            assertEquals(label(board, "no moves after reset"), 0, board.getMoveCount());
+            assertEquals(label(board, "hash cleared"), 0L, board.getZobristHash());
+            assertEquals(label(board, "cell cleared"), ' ', board.getCell(29, 0));
+            assertEquals(label(board, "height cleared"), 0, board.getHeight(0));
+            assertEquals(label(board, "lastCol cleared"), -1, board.getLastCol());
+
+            board.dropDisc(0, 'X');
+            assertFalse(label(board, "no stale discs below"), board.hasConnectFour());
+            for (int i = 0; i < 3; i++) {
+                board.dropDisc(0, 'X');
+            }
+            assertTrue(label(board, "board usable after reset"), board.hasConnectFour());
+        }
+    }
+
+    @Test
+    public void sparseBoardHandlesHugeGrids() {
+        SparseBoard board = new SparseBoard(100_000, 100_000);
+        int bottom = 100_000 - 1;
+
+        // horizontal line across the tile boundary between columns 31 and 32
+        for (int c = 29; c < 32; c++) {
+            assertEquals(bottom, board.dropDisc(c, 'X'));
+        }
+        assertFalse(board.hasConnectFour());
+        board.dropDisc(32, 'X');
+        assertTrue("win across tiles", board.hasConnectFour());
+        assertEquals(2, board.getTileCount());
+
+        board.undoMove();
+        assertEquals("tile released when emptied", 1, board.getTileCount());
+
+        // far corner of the board
+        for (int i = 0; i < 4; i++) {
+            board.dropDisc(99_999, 'O');
+        }
+        assertTrue(board.hasConnectFour());
+        assertEquals('O', board.getCell(bottom - 3, 99_999));
+        assertEquals(' ', board.getCell(bottom - 4, 99_999));
+        assertEquals(2, board.getTileCount());
+
+        board.reset();
+        assertEquals(0, board.getTileCount());
+        assertEquals(0L, board.getZobristHash());
+        assertFalse(board.isFull());
+    }
+
+    @Test
+    public void snapshotsAgreeAcrossBoardsAndIgnoreLaterMoves() {
+        Random random = new Random(23);
+        for (int game = 0; game < 100; game++) {
+            ConnectFourBoard[] boards = boardsUnderTest();
+            NaiveBoard oracle = new NaiveBoard(ROWS, COLUMNS);
+            int discs = random.nextInt(ROWS * COLUMNS + 1);
+            for (int i = 0; i < discs; i++) {
+                int column = random.nextInt(COLUMNS);
+                if (oracle.dropDisc(column, i % 2 == 0 ? 'X' : 'O') >= 0) {
+                    for (ConnectFourBoard board : boards) {
+                        board.dropDisc(column, i % 2 == 0 ? 'X' : 'O');
+                    }
+                }
+            }
+            BoardSnapshot expected = oracle.snapshot();
+            assertEquals(oracle.hasConnectFour(), expected.hasConnectFour());
+            assertWinningLine(oracle, expected.findAnyConnectFour(), oracle.hasConnectFour());
+
+            for (ConnectFourBoard board : boards) {
+                BoardSnapshot snapshot = board.snapshot();
+                assertEquals(label(board, "same position, same snapshot"), expected, snapshot);
+                assertEquals(expected.hashCode(), snapshot.hashCode());
+
+                board.reset();
+                board.dropDisc(0, 'X');
+                for (int r = 0; r < ROWS; r++) {
+                    for (int c = 0; c < COLUMNS; c++) {
+                        assertEquals(label(board, "snapshot unchanged by later moves"),
+                                     oracle.getCell(r, c), snapshot.getCell(r, c));
+                    }
+                }
+                assertEquals(oracle.getMoveCount(), snapshot.getMoveCount());
+                assertEquals(oracle.getZobristHash(), snapshot.getZobristHash());
+            }
+        }
+    }
+
+    @Test
+    public void classicSnapshotMatchesReplayedSnapshot() {
+        Random random = new Random(31);
+        for (int winLength = 3; winLength <= 6; winLength++) {
+            ClassicBitboardBoard board = new ClassicBitboardBoard('R', 'Y', winLength);
+            for (int game = 0; game < 20; game++) {
+                board.reset();
+                int discs = random.nextInt(ROWS * COLUMNS + 1);
+                for (int i = 0; i < discs; i++) {
+                    board.dropDisc(random.nextInt(COLUMNS), board.getSymbolToMove());
+                }
+                BoardSnapshot snapshot = board.snapshot();
+                assertEquals("k=" + winLength, BoardSnapshot.of(board), snapshot);
+                assertEquals(board.findAnyConnectFour() != null, snapshot.hasConnectFour());
+                for (int r = 0; r < ROWS; r++) {
+                    for (int c = 0; c < COLUMNS; c++) {
+                        assertEquals(board.getCell(r, c), snapshot.getCell(r, c));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void snapshotsCanBeReadWhileTheBoardPlays() throws InterruptedException {
+        BitboardBoard board = new BitboardBoard(20, 20);
+        AtomicReference<BoardSnapshot> published = new AtomicReference<>(board.snapshot());
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+
+        Thread reader = new Thread(() -> {
+            while (!done.get() && failure.get() == null) {
+                BoardSnapshot snapshot = published.get();
+                // Every snapshot must be one whole position: discs stacked from the bottom, all counted
+                int discs = 0;
+                for (int c = 0; c < snapshot.getColumns(); c++) {
+                    boolean empty = false;
+                    for (int r = snapshot.getRows() - 1; r >= 0; r--) {
+                        if (snapshot.getCell(r, c) == ' ') {
+                            empty = true;
+                        } else if (empty) {
+                            failure.set("floating disc in column " + c);
+                        } else {
+                            discs++;
+                        }
+                    }
+                }
+                if (discs != snapshot.getMoveCount()) {
+                    failure.set(discs + " discs in a snapshot of " + snapshot.getMoveCount() + " moves");
+                }
+                snapshot.hasConnectFour();
+            }
+        });
+        reader.start();
+        Random random = new Random(24);
+        for (int game = 0; game < 200; game++) {
+            board.reset();
+            char winner = board.playout(random, 'X', 'O');
+            published.set(board.snapshot());
+            assertEquals(winner != ' ', published.get().hasConnectFour());
+        }
+        done.set(true);
+        reader.join();
+        assertNull(failure.get(), failure.get());
+    }
+
+    @Test
+    public void hugeSparseBoardGetsSparseSnapshot() {
+        SparseBoard board = new SparseBoard(100_000, 100_000);
+        int[] columns = {99_999, 0, 99_998, 0, 99_997, 0};
+        for (int i = 0; i < columns.length; i++) {
+            board.dropDisc(columns[i], i % 2 == 0 ? 'X' : 'O');
+        }
+        BoardSnapshot snapshot = board.snapshot();
+        board.dropDisc(99_996, 'X');
+
+        assertEquals('X', snapshot.getCell(99_999, 99_997));
+        assertEquals('O', snapshot.getCell(99_997, 0));
+        assertEquals(' ', snapshot.getCell(99_999, 99_996));
+        assertFalse(snapshot.hasConnectFour());
+        assertEquals(6, snapshot.getMoveCount());
+
+        BoardSnapshot won = board.snapshot();
+        assertTrue(board.hasConnectFour());
+        WinningLine line = won.findAnyConnectFour();
+        assertNotNull(line);
+        assertEquals('X', line.getWinner());
+        assertEquals(board.snapshot(), won);
+        assertNotEquals(snapshot, won);
+    }
+
+    @Test
+    public void sparseSnapshotsAgreeWithPackedOnes() {
+        Random random = new Random(23);
+        for (int game = 0; game < 200; game++) {
+            ConnectFourBoard board = new NaiveBoard(ROWS, COLUMNS, 3 + game % 3);
+            board.playout(random, 'X', 'O');
+            BoardSnapshot packed = board.snapshot();
+            BoardSnapshot sparse = BoardSnapshot.sparse(board);
+            assertEquals(packed.hasConnectFour(), sparse.hasConnectFour());
+            WinningLine line = sparse.findAnyConnectFour();
+            if (line != null) {
+                assertWinningLine(board, line, true);
+            }
+            for (int r = 0; r < ROWS; r++) {
+                for (int c = 0; c < COLUMNS; c++) {
+                    assertEquals(packed.getCell(r, c), sparse.getCell(r, c));
+                }
+            }
+        }
+    }
+
+    private long hashOf(ConnectFourBoard b) {
+        b.dropDisc(1, 'O');
+        b.dropDisc(0, 'X');
+        b.dropDisc(2, 'X');
+        return b.getZobristHash();
+    }
+
     private String label(ConnectFourBoard board, String message) {
         return board.getClass().getSimpleName() + ": " + message;
     }
@@ -230,6 +866,16 @@ public class ConnectFourBoardTest {
         b.dropDisc(3, symbol);
     }
 
+    /** Fills the 6x7 board with alternating columns shifted as AABBAAB, which contains no four in a row. */
+    private void fillWithoutWin(ConnectFourBoard b) {
+        int[] shift = {0, 0, 1, 1, 0, 0, 1};
+        for (int c = 0; c < COLUMNS; c++) {
+            for (int r = 0; r < ROWS; r++) {
+                b.dropDisc(c, (r + shift[c]) % 2 == 0 ? 'X' : 'O');
+            }
+        }
+    }
+
     private char other(char symbol) {
         return symbol == 'X' ? 'O' : 'X';
     }
@@ -0,0 +1,124 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Layout of the binary game-record archive shared by
+ * {@link GameArchiveWriter} and {@link GameArchiveReader}. All numbers are
+ * big-endian.
+ *
+ * <pre>
+ *   header   int    magic "C4GA"
+ *            short  version
+ *            int    rows, columns, winLength
+ *            short  player count n, then n chars (the symbols, in turn order)
+ *   games    per game: varint move count, then one varint column per move
+ *   index    long   start offset of every game, in order
+ *   trailer  long   offset of the index
+ *            long   game count
+ *            int    magic "C4GI"
+ * </pre>
+ *
+ * Moves always cycle through the players in header order, so a move costs
+ * one byte for boards up to 128 columns. The writer keeps the index in
+ * memory and writes index and trailer on close; appending truncates them
+ * and writes them again. An archive whose writer never closed has no
+ * trailer, and readers rebuild the index by scanning the games.
+ */
+final class GameArchive {
+
+    static final int MAGIC = 0x43344741;         // "C4GA"
+    static final int INDEX_MAGIC = 0x43344749;   // "C4GI"
+    static final short VERSION = 1;
+    static final int TRAILER_BYTES = 8 + 8 + 4;
+
+    private GameArchive() {
+    }
+
+    static int headerBytes(int players) {
+        return 4 + 2 + 4 + 4 + 4 + 2 + 2 * players;
+    }
+
+    /** Header fields as read from an archive. */
+    static final class Header {
+        final int rows;
+        final int columns;
+        final int winLength;
+        final char[] players;
+
+        Header(int rows, int columns, int winLength, char[] players) {
+            this.rows = rows;
+            this.columns = columns;
+            this.winLength = winLength;
+            this.players = players;
+        }
+
+        int bytes() {
+            return headerBytes(players.length);
+        }
+    }
+
+    static void validate(int rows, int columns, int winLength, char[] players) {
+        if (rows <= 0 || columns <= 0 || winLength <= 0) {
+            throw new IllegalArgumentException("rows, columns and winLength must be positive");
+        }
+        if (players.length == 0 || players.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("need at least one player");
+        }
+        for (char symbol : players) {
+            if (symbol == ' ') {
+                throw new IllegalArgumentException("Symbol cannot be space");
+            }
+        }
+    }
+
+    static void writeHeader(ByteBuffer out, int rows, int columns, int winLength, char[] players) {
+        out.putInt(MAGIC);
+        out.putShort(VERSION);
+        out.putInt(rows);
+        out.putInt(columns);
+        out.putInt(winLength);
+        out.putShort((short) players.length);
+        for (char symbol : players) {
+            out.putChar(symbol);
+        }
+    }
+
+    /** Reads the header at the start of in, leaving its position unchanged. */
+    static Header readHeader(ByteBuffer in) throws IOException {
+        if (in.limit() < headerBytes(0) || in.getInt(0) != MAGIC) {
+            throw new IOException("not a game archive");
+        }
+        if (in.getShort(4) != VERSION) {
+            throw new IOException("unsupported game archive version " + in.getShort(4));
+        }
+        int rows = in.getInt(6);
+        int columns = in.getInt(10);
+        int winLength = in.getInt(14);
+        int count = in.getShort(18);
+        if (count <= 0 || in.limit() < headerBytes(count)) {
+            throw new IOException("truncated game archive header");
+        }
+        char[] players = new char[count];
+        for (int i = 0; i < count; i++) {
+            players[i] = in.getChar(20 + 2 * i);
+        }
+        return new Header(rows, columns, winLength, players);
+    }
+
+    /** Number of bytes the unsigned LEB128 varint encoding of value takes. */
+    static int varintBytes(int value) {
+        int bytes = 1;
+        while ((value >>>= 7) != 0) {
+            bytes++;
+        }
+        return bytes;
+    }
+
+    static void putVarint(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+}
@@ -0,0 +1,218 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Memory-mapped reader for game-record archives (format in
+ * {@link GameArchive}). Moves are decoded straight from the mapping into
+ * {@link ConnectFourBoard#dropDisc}, so replaying allocates nothing per game
+ * or move; the OS page cache is the only buffer.
+ *
+ * Archives are mapped whole and must stay below 2 GB. A reader keeps a
+ * decoding cursor and is not thread-safe; open one reader per thread, they
+ * share the mapped pages.
+ *
+ * A reader has nothing to close: the mapping has no explicit release and
+ * lives until the reader is garbage collected.
+ */
+public final class GameArchiveReader {
+
+    /** Called after each game of {@link #replayAll}, with the board holding its final position. */
+    @FunctionalInterface
+    public interface GameVisitor {
+        void visit(int game, ConnectFourBoard board);
+    }
+
+    private final MappedByteBuffer data;
+    private final GameArchive.Header header;
+    private final int gameCount;
+    // Start of the on-disk index, or -1 if the index was rebuilt into scannedOffsets
+    private final int indexOffset;
+    private final long[] scannedOffsets;
+    // End of the last game
+    private final int gamesEnd;
+    private int cursor;
+
+    private GameArchiveReader(MappedByteBuffer data, GameArchive.Header header) throws IOException {
+        this.data = data;
+        this.header = header;
+        int size = data.limit();
+        int indexAt = -1;
+        long count = -1;
+        if (size >= header.bytes() + GameArchive.TRAILER_BYTES
+                && data.getInt(size - 4) == GameArchive.INDEX_MAGIC) {
+            long offset = data.getLong(size - GameArchive.TRAILER_BYTES);
+            count = data.getLong(size - GameArchive.TRAILER_BYTES + 8);
+            if (offset < header.bytes() || count < 0 || offset + 8 * count + GameArchive.TRAILER_BYTES != size) {
+                throw new IOException("corrupt game archive index");
+            }
+            indexAt = (int) offset;
+        }
+        if (indexAt >= 0) {
+            this.indexOffset = indexAt;
+            this.gameCount = (int) count;
+            this.scannedOffsets = null;
+            this.gamesEnd = indexAt;
+        } else {
+            // writer did not close: rebuild the index, dropping a game cut off mid-write
+            long[] offsets = new long[64];
+            int games = 0;
+            cursor = header.bytes();
+            int end = cursor;
+            while (cursor < size) {
+                int start = cursor;
+                int moves = readVarint(size);
+                if (moves < 0 || !skipVarints(moves, size)) {
+                    break;
+                }
+                if (games == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, games * 2);
+                }
+                offsets[games++] = start;
+                end = cursor;
+            }
+            this.indexOffset = -1;
+            this.gameCount = games;
+            this.scannedOffsets = offsets;
+            this.gamesEnd = end;
+        }
+    }
+
+    /**
+     * Maps an archive. The file channel is closed before this returns; the
+     * mapping lives until the reader is garbage collected, so on some
+     * platforms the file cannot be replaced or deleted while a reader is
+     * reachable.
+     */
+    public static GameArchiveReader open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("game archive over 2 GB; split it into several archives");
+            }
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return new GameArchiveReader(data, GameArchive.readHeader(data));
+        }
+    }
+
+    public int getRows() {
+        return header.rows;
+    }
+
+    public int getColumns() {
+        return header.columns;
+    }
+
+    public int getWinLength() {
+        return header.winLength;
+    }
+
+    /** Player symbols in turn order. */
+    public char[] getPlayers() {
+        return header.players.clone();
+    }
+
+    public int getGameCount() {
+        return gameCount;
+    }
+
+    /** True if the archive had no index (its writer never closed) and it was rebuilt by scanning. */
+    public boolean isRecovered() {
+        return indexOffset < 0;
+    }
+
+    public int getMoveCount(int game) {
+        cursor = offsetOf(game);
+        return readVarint(gamesEnd);
+    }
+
+    /**
+     * Resets board and plays the given game on it.
+     * @return number of moves played
+     */
+    public int replay(int game, ConnectFourBoard board) {
+        checkBoard(board);
+        cursor = offsetOf(game);
+        return replayAtCursor(board);
+    }
+
+    /**
+     * Replays every game in order into board, walking the archive
+     * sequentially.
+     * @param visitor called after each game, or null
+     * @return total number of moves played
+     */
+    public long replayAll(ConnectFourBoard board, GameVisitor visitor) {
+        checkBoard(board);
+        cursor = gameCount == 0 ? gamesEnd : offsetOf(0);
+        long moves = 0;
+        for (int game = 0; game < gameCount; game++) {
+            moves += replayAtCursor(board);
+            if (visitor != null) {
+                visitor.visit(game, board);
+            }
+        }
+        return moves;
+    }
+
+    private int replayAtCursor(ConnectFourBoard board) {
+        board.reset();
+        char[] players = header.players;
+        int moves = readVarint(gamesEnd);
+        if (moves < 0) {
+            throw new IllegalStateException("corrupt game archive at offset " + cursor);
+        }
+        int columns = header.columns;
+        int player = 0;
+        for (int ply = 0; ply < moves; ply++) {
+            int column = readVarint(gamesEnd);
+            // Checked here so a bad column reports the archive, not the board, as broken
+            if (column < 0 || column >= columns || board.dropDisc(column, players[player]) < 0) {
+                throw new IllegalStateException("corrupt game archive: bad move " + ply + " at offset " + cursor);
+            }
+            if (++player == players.length) {
+                player = 0;
+            }
+        }
+        return moves;
+    }
+
+    private int offsetOf(int game) {
+        if (game < 0 || game >= gameCount) {
+            throw new IllegalArgumentException("Invalid game: " + game);
+        }
+        return scannedOffsets != null ? (int) scannedOffsets[game] : (int) data.getLong(indexOffset + 8 * game);
+    }
+
+    private void checkBoard(ConnectFourBoard board) {
+        if (board.getRows() != header.rows || board.getColumns() != header.columns
+                || board.getWinLength() != header.winLength) {
+            throw new IllegalArgumentException("board size or win length differs from the archive");
+        }
+    }
+
+    /** Decodes the varint at the cursor and advances past it; -1 if it is cut off at limit or too long. */
+    private int readVarint(int limit) {
+        int value = 0;
+        for (int shift = 0; shift < 35 && cursor < limit; shift += 7) {
+            byte b = data.get(cursor++);
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        return -1;
+    }
+
+    private boolean skipVarints(int count, int limit) {
+        for (int i = 0; i < count; i++) {
+            if (readVarint(limit) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,148 @@
+// GameArchiveTest.java
+
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+
+public class GameArchiveTest {
+
+    private static final int ROWS = 6;
+    private static final int COLUMNS = 7;
+
+    private Path file;
+
+    @Before
+    public void createFile() throws IOException {
+        file = Files.createTempFile("games", ".c4ga");
+    }
+
+    @After
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void replayReproducesRecordedGames() throws IOException {
+        int games = 500;
+        long[] hashes = new long[games];
+        int[] moves = new int[games];
+        ConnectFourBoard board = new OptimizedBoard(ROWS, COLUMNS);
+        SplittableRandom random = new SplittableRandom(7L);
+        try (GameArchiveWriter writer = GameArchiveWriter.create(file, ROWS, COLUMNS, 4, 'X', 'O')) {
+            for (int g = 0; g < games; g++) {
+                board.reset();
+                board.playout(random, 'X', 'O');
+                hashes[g] = board.getZobristHash();
+                moves[g] = board.getMoveCount();
+                writer.writeGame(board);
+            }
+        }
+
+        GameArchiveReader reader = GameArchiveReader.open(file);
+        assertEquals(games, reader.getGameCount());
+        assertArrayEquals(new char[] {'X', 'O'}, reader.getPlayers());
+        assertFalse(reader.isRecovered());
+
+        ConnectFourBoard replayed = new BitboardBoard(ROWS, COLUMNS);
+        long total = reader.replayAll(replayed, (game, b) -> {
+            assertEquals("hash of game " + game, hashes[game], b.getZobristHash());
+            assertEquals(moves[game], b.getMoveCount());
+        });
+        long expected = 0;
+        for (int m : moves) {
+            expected += m;
+        }
+        assertEquals(expected, total);
+
+        assertEquals(moves[123], reader.replay(123, replayed));
+        assertEquals(hashes[123], replayed.getZobristHash());
+        assertEquals(moves[42], reader.getMoveCount(42));
+    }
+
+    @Test
+    public void appendKeepsEarlierGames() throws IOException {
+        try (GameArchiveWriter writer = GameArchiveWriter.create(file, ROWS, COLUMNS, 4, 'A', 'B', 'C')) {
+            writer.writeGame(new int[] {3, 3, 3}, 3);
+        }
+        try (GameArchiveWriter writer = GameArchiveWriter.append(file)) {
+            assertEquals(1, writer.getGameCount());
+            writer.writeGame(new int[] {0, 1, 2, 6}, 4);
+        }
+        GameArchiveReader reader = GameArchiveReader.open(file);
+        assertEquals(2, reader.getGameCount());
+        ConnectFourBoard board = new NaiveBoard(ROWS, COLUMNS);
+        assertEquals(3, reader.replay(0, board));
+        assertEquals('C', board.getCell(ROWS - 3, 3));
+        assertEquals(4, reader.replay(1, board));
+        assertEquals('A', board.getCell(ROWS - 1, 6));
+        assertEquals(' ', board.getCell(ROWS - 2, 3));
+    }
+
+    @Test
+    public void unclosedArchiveIsRecoveredByScanning() throws IOException {
+        GameArchiveWriter writer = GameArchiveWriter.create(file, 100, 300, 4, 'X', 'O');
+        writer.writeGame(new int[] {5, 200, 299}, 3);
+        writer.writeGame(new int[] {150}, 1);
+        writer.close();
+        long size = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            // drop the index and the last byte of the second game
+            channel.truncate(size - 2 * 8 - 20 - 1);
+        }
+        GameArchiveReader reader = GameArchiveReader.open(file);
+        assertTrue(reader.isRecovered());
+        assertEquals(1, reader.getGameCount());
+        ConnectFourBoard board = new SparseBoard(100, 300);
+        assertEquals(3, reader.replay(0, board));
+        assertEquals('O', board.getCell(99, 200));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMovesOutOfTurn() throws IOException {
+        ConnectFourBoard board = new OptimizedBoard(ROWS, COLUMNS);
+        board.dropDisc(0, 'X');
+        board.dropDisc(1, 'X');
+        try (GameArchiveWriter writer = GameArchiveWriter.create(file, ROWS, COLUMNS, 4, 'X', 'O')) {
+            writer.writeGame(board);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsBoardOfOtherSize() throws IOException {
+        try (GameArchiveWriter writer = GameArchiveWriter.create(file, ROWS, COLUMNS, 4, 'X', 'O')) {
+            writer.writeGame(new int[] {1}, 1);
+        }
+        GameArchiveReader reader = GameArchiveReader.open(file);
+        reader.replay(0, new OptimizedBoard(7, 7));
+    }
+
+    @Test
+    public void columnOutOfRangeIsReportedAsCorrupt() throws IOException {
+        try (GameArchiveWriter writer = GameArchiveWriter.create(file, ROWS, COLUMNS, 4, 'X', 'O')) {
+            writer.writeGame(new int[] {2, 6}, 2);
+        }
+        long size = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer trailer = ByteBuffer.allocate(8);
+            channel.read(trailer, size - GameArchive.TRAILER_BYTES);
+            // the game ends where the index starts; its last byte is the move into column 6
+            channel.write(ByteBuffer.wrap(new byte[] {COLUMNS}), trailer.flip().getLong() - 1);
+        }
+        GameArchiveReader reader = GameArchiveReader.open(file);
+        try {
+            reader.replay(0, new OptimizedBoard(ROWS, COLUMNS));
+            fail("column " + COLUMNS + " replayed on a board of " + COLUMNS + " columns");
+        } catch (IllegalStateException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("corrupt"));
+        }
+    }
+}
@@ -0,0 +1,217 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Streams finished games into a game-record archive (format in
+ * {@link GameArchive}). Games are encoded into a reusable buffer and written
+ * in large blocks, so writing allocates nothing per game or move.
+ *
+ * The index and trailer are written by {@link #close()}; until then a reader
+ * has to rebuild the index by scanning. Not thread-safe.
+ */
+public final class GameArchiveWriter implements AutoCloseable {
+
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final FileChannel channel;
+    private final int rows;
+    private final int columns;
+    private final int winLength;
+    private final char[] players;
+
+    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+    // File offset of the first byte in buffer
+    private long flushedBytes;
+    private long[] offsets;
+    private int gameCount;
+    // Scratch column heights for reading a board's move history
+    private final int[] heights;
+    private boolean closed;
+
+    private GameArchiveWriter(FileChannel channel, GameArchive.Header header, long start, long[] offsets, int gameCount) {
+        this.channel = channel;
+        this.rows = header.rows;
+        this.columns = header.columns;
+        this.winLength = header.winLength;
+        this.players = header.players;
+        this.flushedBytes = start;
+        this.offsets = offsets;
+        this.gameCount = gameCount;
+        this.heights = new int[columns];
+    }
+
+    /**
+     * Creates (or replaces) an archive for boards of the given size.
+     * @param players symbols in turn order; game moves cycle through them
+     */
+    public static GameArchiveWriter create(Path file, int rows, int columns, int winLength, char... players) throws IOException {
+        GameArchive.validate(rows, columns, winLength, players);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                               StandardOpenOption.TRUNCATE_EXISTING);
+        GameArchive.Header header = new GameArchive.Header(rows, columns, winLength, players.clone());
+        GameArchiveWriter writer = new GameArchiveWriter(channel, header, 0L, new long[64], 0);
+        writer.ensureRoom(header.bytes());
+        GameArchive.writeHeader(writer.buffer, rows, columns, winLength, header.players);
+        return writer;
+    }
+
+    /**
+     * Reopens a closed archive to add more games: the index and trailer are
+     * cut off and written again, with the new games, on close.
+     */
+    public static GameArchiveWriter append(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = channel.size();
+            ByteBuffer head = ByteBuffer.allocate((int) Math.min(size, GameArchive.headerBytes(Short.MAX_VALUE)));
+            readFully(channel, head, 0L);
+            GameArchive.Header header = GameArchive.readHeader(head.flip());
+
+            ByteBuffer trailer = ByteBuffer.allocate(GameArchive.TRAILER_BYTES);
+            if (size < header.bytes() + GameArchive.TRAILER_BYTES) {
+                throw new IOException("game archive has no trailer; it was not closed");
+            }
+            readFully(channel, trailer, size - GameArchive.TRAILER_BYTES);
+            trailer.flip();
+            long indexOffset = trailer.getLong();
+            long count = trailer.getLong();
+            if (trailer.getInt() != GameArchive.INDEX_MAGIC || indexOffset + 8 * count + GameArchive.TRAILER_BYTES != size) {
+                throw new IOException("game archive has no trailer; it was not closed");
+            }
+            if (count > Integer.MAX_VALUE - 8) {
+                throw new IOException("too many games in one archive: " + count);
+            }
+
+            ByteBuffer index = ByteBuffer.allocate((int) (8 * count));
+            readFully(channel, index, indexOffset);
+            index.flip();
+            long[] offsets = new long[Math.max(64, (int) count)];
+            for (int i = 0; i < count; i++) {
+                offsets[i] = index.getLong();
+            }
+            channel.truncate(indexOffset);
+            return new GameArchiveWriter(channel, header, indexOffset, offsets, (int) count);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** Appends the game played on board so far, i.e. all of its moves in order. */
+    public void writeGame(ConnectFourBoard board) throws IOException {
+        if (board.getRows() != rows || board.getColumns() != columns || board.getWinLength() != winLength) {
+            throw new IllegalArgumentException("board size or win length differs from the archive");
+        }
+        int moves = board.getMoveCount();
+        Arrays.fill(heights, 0);
+        for (int ply = 0; ply < moves; ply++) {
+            int column = board.getMoveColumn(ply);
+            char symbol = board.getCell(rows - 1 - heights[column]++, column);
+            if (symbol != players[ply % players.length]) {
+                throw new IllegalArgumentException("move " + ply + " was played by '" + symbol
+                                                   + "', out of turn for this archive");
+            }
+        }
+        beginGame(moves);
+        for (int ply = 0; ply < moves; ply++) {
+            GameArchive.putVarint(buffer, board.getMoveColumn(ply));
+        }
+        gameCount++;
+    }
+
+    /** Appends a game given as its first moveCount columns; players alternate in header order. */
+    public void writeGame(int[] moveColumns, int moveCount) throws IOException {
+        if (moveCount < 0 || moveCount > moveColumns.length) {
+            throw new IllegalArgumentException("Invalid move count: " + moveCount);
+        }
+        for (int ply = 0; ply < moveCount; ply++) {
+            if (moveColumns[ply] < 0 || moveColumns[ply] >= columns) {
+                throw new IllegalArgumentException("Invalid column: " + moveColumns[ply]);
+            }
+        }
+        beginGame(moveCount);
+        for (int ply = 0; ply < moveCount; ply++) {
+            GameArchive.putVarint(buffer, moveColumns[ply]);
+        }
+        gameCount++;
+    }
+
+    /** Games in the archive, including those written before an append. */
+    public int getGameCount() {
+        return gameCount;
+    }
+
+    /** Writes the index and trailer and closes the file. */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            long indexOffset = flushedBytes + buffer.position();
+            for (int i = 0; i < gameCount; i++) {
+                ensureRoom(8);
+                buffer.putLong(offsets[i]);
+            }
+            ensureRoom(GameArchive.TRAILER_BYTES);
+            buffer.putLong(indexOffset);
+            buffer.putLong(gameCount);
+            buffer.putInt(GameArchive.INDEX_MAGIC);
+            flushBuffer();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /** Records the offset of a new game, makes room for all of it and writes its move count. */
+    private void beginGame(int moves) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("archive writer is closed");
+        }
+        if (gameCount == Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("too many games in one archive");
+        }
+        if (gameCount == offsets.length) {
+            offsets = Arrays.copyOf(offsets, (int) Math.min(gameCount * 2L, Integer.MAX_VALUE - 8));
+        }
+        // a column index takes at most varintBytes(columns - 1) bytes
+        ensureRoom(GameArchive.varintBytes(moves) + (long) moves * GameArchive.varintBytes(columns - 1));
+        offsets[gameCount] = flushedBytes + buffer.position();
+        GameArchive.putVarint(buffer, moves);
+    }
+
+    private void ensureRoom(long bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        flushBuffer();
+        if (buffer.capacity() < bytes) {
+            if (bytes > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("game too long to encode: " + bytes + " bytes");
+            }
+            buffer = ByteBuffer.allocate((int) bytes);
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            flushedBytes += channel.write(buffer, flushedBytes);
+        }
+        buffer.clear();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer into, long position) throws IOException {
+        while (into.hasRemaining()) {
+            int read = channel.read(into, position + into.position());
+            if (read < 0) {
+                throw new IOException("unexpected end of game archive");
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Lock-free histogram of non-negative longs with log-linear buckets, in the
+ * spirit of HdrHistogram: values below 16 get a bucket each, and every
+ * power-of-two range above is split into 16 equal sub-buckets, so a
+ * reported value is within 1/16 (about 6%) of the true one. The whole long
+ * range fits in 960 buckets.
+ *
+ * Any number of threads may record concurrently; a record is one atomic
+ * increment plus a striped max update, with no locks.
+ */
+public final class LogHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAccumulator maxValue = new LongAccumulator(Math::max, 0L);
+
+    /** Counts one occurrence of value; negative values are counted as 0. */
+    public void record(long value) {
+        long v = Math.max(value, 0L);
+        counts.incrementAndGet(bucketOf(v));
+        maxValue.accumulate(v);
+    }
+
+    /** Copy of the current counts; later records do not change it. */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new Snapshot(copy, maxValue.get());
+    }
+
+    public void clear() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0L);
+        }
+        maxValue.reset();
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int mantissa = (int) (value >>> shift);   // in [SUB_BUCKETS, 2 * SUB_BUCKETS)
+        return (shift + 1) * SUB_BUCKETS + (mantissa - SUB_BUCKETS);
+    }
+
+    /** Largest value that lands in the bucket. */
+    static long highestValueIn(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long mantissa = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    /** Immutable view of a histogram at one point in time. */
+    public static final class Snapshot {
+
+        private final long[] counts;
+        private final long max;
+        private final long count;
+
+        Snapshot(long[] counts, long max) {
+            this.counts = counts;
+            this.max = max;
+            long total = 0;
+            for (long c : counts) {
+                total += c;
+            }
+            this.count = total;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /** Exact largest value recorded, 0 if none. */
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * Smallest bucket bound that at least the given percentage (0..100)
+         * of the recorded values do not exceed; 0 if nothing was recorded.
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("percentile must be within 0..100: " + percentile);
+            }
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValueIn(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,339 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Monte Carlo Tree Search (UCT) for any board size.
+ *
+ * Root-parallel: every worker grows its own tree from a private copy of the
+ * position, with its own random stream, and the visit counts of the root
+ * moves are summed at the end. Trees are structure-of-arrays with primitive
+ * child indices (no object per node) and a fixed node capacity; once a tree
+ * is full it keeps running rollouts from its leaves without expanding.
+ *
+ * Rollouts use {@link ConnectFourBoard#playout}, and every iteration is
+ * taken back with undoMove(), so the only allocation is the trees themselves.
+ */
+public class MctsEngine implements AutoCloseable {
+
+    private static final double EXPLORATION = Math.sqrt(2.0);
+
+    private final Supplier<? extends ConnectFourBoard> boardFactory;
+    private final int threads;
+    private final int maxNodesPerTree;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param boardFactory    creates the boards the workers search on; must match the size of searched positions
+     * @param threads         number of root-parallel workers
+     * @param maxNodesPerTree node capacity of each worker's tree
+     */
+    public MctsEngine(Supplier<? extends ConnectFourBoard> boardFactory, int threads, int maxNodesPerTree) {
+        if (threads <= 0 || maxNodesPerTree <= 1) {
+            throw new IllegalArgumentException("need at least one thread and two nodes");
+        }
+        this.boardFactory = boardFactory;
+        this.threads = threads;
+        this.maxNodesPerTree = maxNodesPerTree;
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * Searches the position for the player to move.
+     * @param toMove          symbol of the player to move
+     * @param opponent        the other player's symbol
+     * @param timeLimitMillis wall-clock budget, or 0 for none
+     * @param iterationLimit  iterations per worker, or 0 for none (at least one limit must be set)
+     * @param seed            root seed; worker i uses the i-th split stream
+     */
+    public Result search(ConnectFourBoard position, char toMove, char opponent,
+                         long timeLimitMillis, long iterationLimit, long seed) {
+        if (timeLimitMillis <= 0 && iterationLimit <= 0) {
+            throw new IllegalArgumentException("need a time or iteration limit");
+        }
+        if (position.getPlayableColumnCount() == 0 || position.hasConnectFour()) {
+            throw new IllegalArgumentException("position is already decided");
+        }
+        long start = System.nanoTime();
+        long deadline = timeLimitMillis > 0 ? start + timeLimitMillis * 1_000_000L : Long.MAX_VALUE;
+        long iterations = iterationLimit > 0 ? iterationLimit : Long.MAX_VALUE;
+
+        SplittableRandom root = new SplittableRandom(seed);
+        List<Future<Tree>> futures = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            ConnectFourBoard board = boardFactory.get();
+            board.copyFrom(position);
+            Tree tree = new Tree(maxNodesPerTree, board, toMove, opponent, root.split());
+            futures.add(pool.submit(() -> {
+                tree.run(deadline, iterations);
+                return tree;
+            }));
+        }
+
+        int columns = position.getColumns();
+        long[] visits = new long[columns];
+        double[] wins = new double[columns];
+        long totalIterations = 0;
+        long treeBytes = 0;
+        long nodes = 0;
+        for (Future<Tree> future : futures) {
+            Tree tree;
+            try {
+                tree = future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("search interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("search worker failed", e.getCause());
+            }
+            tree.addRootStats(visits, wins);
+            totalIterations += tree.iterations;
+            treeBytes += tree.memoryBytes();
+            nodes += tree.size;
+        }
+
+        int best = -1;
+        for (int c = 0; c < columns; c++) {
+            if (visits[c] > 0 && (best < 0 || visits[c] > visits[best])) {
+                best = c;
+            }
+        }
+        return new Result(best, visits, wins, totalIterations, nodes, treeBytes, System.nanoTime() - start);
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /** One worker's search tree; node 0 is the root. */
+    private static final class Tree {
+
+        // Node state; a node's value is from the point of view of the player who moved into it
+        private final int[] firstChild;   // -1 until expanded
+        private final int[] childCount;
+        private final int[] move;         // column played to reach the node
+        private final int[] visits;
+        private final float[] value;      // 1 per win, 0.5 per draw
+        private final byte[] terminal;    // 0 open, WIN or DRAW once known
+
+        private static final byte WIN = 1;
+        private static final byte DRAW = 2;
+
+        private final ConnectFourBoard board;
+        private final char toMove;
+        private final char opponent;
+        private final SplittableRandom random;
+        private final int[] path;
+
+        private int size = 1;
+        private long iterations;
+
+        Tree(int capacity, ConnectFourBoard board, char toMove, char opponent, SplittableRandom random) {
+            this.firstChild = new int[capacity];
+            this.childCount = new int[capacity];
+            this.move = new int[capacity];
+            this.visits = new int[capacity];
+            this.value = new float[capacity];
+            this.terminal = new byte[capacity];
+            this.board = board;
+            this.toMove = toMove;
+            this.opponent = opponent;
+            this.random = random;
+            // a path never goes deeper than the tree or the moves left on the board
+            long movesLeft = (long) board.getRows() * board.getColumns() - board.getMoveCount();
+            this.path = new int[(int) Math.min(movesLeft, capacity) + 1];
+            firstChild[0] = -1;
+        }
+
+        void run(long deadline, long maxIterations) {
+            int rootMoves = board.getMoveCount();
+            while (iterations < maxIterations && ((iterations & 63) != 0 || System.nanoTime() < deadline)) {
+                iterate(rootMoves);
+                iterations++;
+            }
+        }
+
+        private void iterate(int rootMoves) {
+            int node = 0;
+            int depth = 0;
+            path[0] = 0;
+            char mover = toMove; // player who makes the next move from `node`
+
+            // Selection
+            while (terminal[node] == 0 && firstChild[node] >= 0) {
+                node = selectChild(node);
+                board.dropDisc(move[node], mover);
+                path[++depth] = node;
+                if (board.hasConnectFour()) {
+                    terminal[node] = WIN;
+                } else if (board.getPlayableColumnCount() == 0) {
+                    terminal[node] = DRAW;
+                }
+                mover = mover == toMove ? opponent : toMove;
+            }
+
+            // Expansion: once a leaf has been visited, add all its moves and step into one
+            if (terminal[node] == 0 && visits[node] > 0 && expand(node)) {
+                node = firstChild[node] + random.nextInt(childCount[node]);
+                board.dropDisc(move[node], mover);
+                path[++depth] = node;
+                if (board.hasConnectFour()) {
+                    terminal[node] = WIN;
+                } else if (board.getPlayableColumnCount() == 0) {
+                    terminal[node] = DRAW;
+                }
+                mover = mover == toMove ? opponent : toMove;
+            }
+
+            // Simulation
+            char winner;
+            if (terminal[node] == WIN) {
+                winner = mover == toMove ? opponent : toMove; // the player who just moved
+            } else if (terminal[node] == DRAW) {
+                winner = ' ';
+            } else {
+                winner = board.playout(random, mover, mover == toMove ? opponent : toMove);
+            }
+
+            // Backpropagation: node at odd depth was entered by toMove
+            for (int d = depth; d >= 0; d--) {
+                int n = path[d];
+                visits[n]++;
+                if (winner == ' ') {
+                    value[n] += 0.5f;
+                } else if (d > 0 && winner == ((d & 1) == 1 ? toMove : opponent)) {
+                    value[n] += 1f;
+                }
+            }
+
+            while (board.getMoveCount() > rootMoves) {
+                board.undoMove();
+            }
+        }
+
+        private int selectChild(int node) {
+            int first = firstChild[node];
+            int count = childCount[node];
+            double logParent = Math.log(visits[node]);
+            int best = first;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int child = first; child < first + count; child++) {
+                int n = visits[child];
+                if (n == 0) {
+                    return child;
+                }
+                double score = value[child] / n + EXPLORATION * Math.sqrt(logParent / n);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        /** Adds one child per playable column; false if the tree has no room left. */
+        private boolean expand(int node) {
+            int count = 0;
+            for (int c = 0; c < board.getColumns(); c++) {
+                if (board.isColumnPlayable(c)) {
+                    count++;
+                }
+            }
+            if (size + count > firstChild.length) {
+                return false;
+            }
+            int first = size;
+            for (int c = 0; c < board.getColumns(); c++) {
+                if (board.isColumnPlayable(c)) {
+                    move[size] = c;
+                    firstChild[size] = -1;
+                    size++;
+                }
+            }
+            firstChild[node] = first;
+            childCount[node] = count;
+            return true;
+        }
+
+        void addRootStats(long[] columnVisits, double[] columnWins) {
+            int first = firstChild[0];
+            if (first < 0) {
+                return;
+            }
+            for (int child = first; child < first + (childCount[0]); child++) {
+                columnVisits[move[child]] += visits[child];
+                columnWins[move[child]] += value[child];
+            }
+        }
+
+        long memoryBytes() {
+            long perNode = Integer.BYTES * 4L + Float.BYTES + 1L;
+            return perNode * firstChild.length;
+        }
+    }
+
+    /** Aggregated root statistics of one search. */
+    public static final class Result {
+
+        private final int bestMove;
+        private final long[] visits;
+        private final double[] wins;
+        private final long iterations;
+        private final long nodes;
+        private final long treeBytes;
+        private final long elapsedNanos;
+
+        Result(int bestMove, long[] visits, double[] wins, long iterations, long nodes, long treeBytes, long elapsedNanos) {
+            this.bestMove = bestMove;
+            this.visits = visits;
+            this.wins = wins;
+            this.iterations = iterations;
+            this.nodes = nodes;
+            this.treeBytes = treeBytes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /** Most visited root column, or -1 if no iteration finished. */
+        public int getBestMove() {
+            return bestMove;
+        }
+
+        /** Root visits of the given column, summed over all workers. */
+        public long getVisits(int column) {
+            return visits[column];
+        }
+
+        /** Share of the given column's rollouts won by the player to move (draws count half). */
+        public double getWinRate(int column) {
+            return visits[column] == 0 ? 0.0 : wins[column] / visits[column];
+        }
+
+        /** Iterations summed over all workers. */
+        public long getIterations() {
+            return iterations;
+        }
+
+        public double getIterationsPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : iterations * 1e9 / elapsedNanos;
+        }
+
+        /** Nodes in use, summed over all trees. */
+        public long getNodes() {
+            return nodes;
+        }
+
+        /** Bytes allocated for the node arrays of all trees. */
+        public long getTreeBytes() {
+            return treeBytes;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+// MctsEngineTest.java
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class MctsEngineTest {
+
+    @Test
+    public void findsImmediateWin() {
+        ConnectFourBoard board = new BitboardBoard(6, 7);
+        board.dropDisc(1, 'X');
+        board.dropDisc(1, 'O');
+        board.dropDisc(2, 'X');
+        board.dropDisc(2, 'O');
+        board.dropDisc(3, 'X');
+        board.dropDisc(3, 'O');
+
+        try (MctsEngine engine = new MctsEngine(() -> new BitboardBoard(6, 7), 2, 100_000)) {
+            MctsEngine.Result result = engine.search(board, 'X', 'O', 0, 5_000, 1L);
+
+            assertTrue("X wins in column 0 or 4", result.getBestMove() == 0 || result.getBestMove() == 4);
+            assertEquals(10_000, result.getIterations());
+            assertTrue(result.getNodes() > 1);
+            assertEquals("search leaves the position alone", 6, board.getMoveCount());
+        }
+    }
+
+    @Test
+    public void searchesLargeBoardWithinNodeCapacity() {
+        ConnectFourBoard board = new OptimizedBoard(40, 40);
+        board.dropDisc(20, 'X');
+
+        try (MctsEngine engine = new MctsEngine(() -> new OptimizedBoard(40, 40), 1, 1_000)) {
+            MctsEngine.Result result = engine.search(board, 'O', 'X', 0, 200, 3L);
+
+            assertTrue(board.isColumnPlayable(result.getBestMove()));
+            assertTrue("tree stays within capacity", result.getNodes() <= 1_000);
+            assertTrue(result.getTreeBytes() > 0);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * Decorator that measures the hot operations of a board: dropDisc,
+ * undoMove, hasConnectFour and reset go through the wrapper, which times
+ * them into a {@link BoardMetrics} and emits {@link BoardOperationEvent}s,
+ * then delegates. Everything else is read from {@link #getBoard()}.
+ *
+ * The board itself carries no timers or events. Win checks also book the
+ * cells they read when the board reports them
+ * ({@link ConnectFourBoard#getCellsInspected()}); boards that walk cells
+ * count them in a local and store the total once per check, wrapped or
+ * not, while bitboard and run-length boards report nothing, as they judge
+ * packed bits, not cells.
+ *
+ * A MeteredBoard is not a ConnectFourBoard, so it cannot be handed to
+ * SimulationEngine, Perft, the archive reader or the benchmarks; those
+ * drive their boards directly and are not measured. Use it where your own
+ * code makes the moves.
+ *
+ * Like the board, a wrapper belongs to one thread; several wrappers on
+ * different threads may share one BoardMetrics.
+ */
+public final class MeteredBoard {
+
+    private final ConnectFourBoard board;
+    private final BoardMetrics metrics;
+
+    public MeteredBoard(ConnectFourBoard board, BoardMetrics metrics) {
+        if (board == null || metrics == null) {
+            throw new IllegalArgumentException("board and metrics must not be null");
+        }
+        this.board = board;
+        this.metrics = metrics;
+    }
+
+    /** The wrapped board; calls made on it directly are not measured. */
+    public ConnectFourBoard getBoard() {
+        return board;
+    }
+
+    public BoardMetrics getMetrics() {
+        return metrics;
+    }
+
+    /** @see ConnectFourBoard#dropDisc */
+    public int dropDisc(int column, char symbol) {
+        BoardOperationEvent event = new BoardOperationEvent();
+        event.begin();
+        long start = System.nanoTime();
+        int row = board.dropDisc(column, symbol);
+        record(BoardMetrics.Operation.DROP, start, event, -1);
+        return row;
+    }
+
+    /** @see ConnectFourBoard#undoMove */
+    public int undoMove() {
+        BoardOperationEvent event = new BoardOperationEvent();
+        event.begin();
+        long start = System.nanoTime();
+        int column = board.undoMove();
+        record(BoardMetrics.Operation.UNDO, start, event, -1);
+        return column;
+    }
+
+    /** @see ConnectFourBoard#hasConnectFour */
+    public boolean hasConnectFour() {
+        BoardOperationEvent event = new BoardOperationEvent();
+        event.begin();
+        long start = System.nanoTime();
+        boolean won = board.hasConnectFour();
+        record(BoardMetrics.Operation.CHECK, start, event, board.getCellsInspected());
+        return won;
+    }
+
+    /** @see ConnectFourBoard#reset */
+    public void reset() {
+        BoardOperationEvent event = new BoardOperationEvent();
+        event.begin();
+        long start = System.nanoTime();
+        board.reset();
+        record(BoardMetrics.Operation.RESET, start, event, -1);
+    }
+
+    /** Books one measured operation; cells is -1 when there is no cell count to report. */
+    private void record(BoardMetrics.Operation op, long start, BoardOperationEvent event, long cells) {
+        metrics.record(op, System.nanoTime() - start);
+        if (cells >= 0) {
+            metrics.recordCellsInspected(cells);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = op.key();
+            event.board = board.getClass().getSimpleName();
+            event.cellsInspected = cells;
+            event.commit();
+        }
+    }
+}
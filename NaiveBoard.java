@@ -1,62 +1,96 @@
 // NaiveBoard.java
 public class NaiveBoard extends ConnectFourBoard {
 
+    // Cells read by the last win check, for metrics
+    private long cellsInspected;
+
     public NaiveBoard(int rows, int columns) {
         super(rows, columns);
     }
 
+    public NaiveBoard(int rows, int columns, int winLength) {
+        super(rows, columns, winLength);
+    }
+
     /**
      * Naive win check:
      * - Checks each cell as a potential starting point.
      * - Looks along 4 lines (horizontal, vertical, 2 diagonals).
-     * - Only needs to look up to 3 cells away in each direction (Connect-4).
+     * - Only needs to look up to winLength - 1 cells away in each direction.
      *
-     * Asymptotically: O(rows * columns) work per call.
+     * Asymptotically: O(rows * columns * winLength) work per call.
      */
     @Override
     public boolean hasConnectFour() {
+        // Counted in a local and stored once, so the scan itself writes no fields
+        long cells = 0;
         // Check each cell as a potential starting point
         for (int r = 0; r < rows; r++) {
             for (int c = 0; c < columns; c++) {
-                char symbol = grid[r][c];
+                cells++;
+                char symbol = grid.get(r, c);
                 if (symbol == ' ') {
                     continue;
                 }
+                int run;
                 // Right
-                if (hasRunFrom(r, c, 0, 1, symbol)) return true;
+                run = runFrom(r, c, 0, 1, symbol);
+                cells += cellsRead(r, c, 0, 1, run);
+                if (run == winLength) {
+                    cellsInspected = cells;
+                    return true;
+                }
                 // Down
-                if (hasRunFrom(r, c, 1, 0, symbol)) return true;
+                run = runFrom(r, c, 1, 0, symbol);
+                cells += cellsRead(r, c, 1, 0, run);
+                if (run == winLength) {
+                    cellsInspected = cells;
+                    return true;
+                }
                 // Down-right
-                if (hasRunFrom(r, c, 1, 1, symbol)) return true;
+                run = runFrom(r, c, 1, 1, symbol);
+                cells += cellsRead(r, c, 1, 1, run);
+                if (run == winLength) {
+                    cellsInspected = cells;
+                    return true;
+                }
                 // Up-right
-                if (hasRunFrom(r, c, -1, 1, symbol)) return true;
+                run = runFrom(r, c, -1, 1, symbol);
+                cells += cellsRead(r, c, -1, 1, run);
+                if (run == winLength) {
+                    cellsInspected = cells;
+                    return true;
+                }
             }
         }
+        cellsInspected = cells;
         return false;
     }
 
+    @Override
+    public long getCellsInspected() {
+        return cellsInspected;
+    }
+
     /**
-     * Helper method to check if there is a run of 4 or more same-symbol cells starting from (row, col)
-     * and walking in direction (dr, dc).
+     * Helper method to count the same-symbol cells in a row starting from (row, col)
+     * and walking in direction (dr, dc), stopping at winLength.
      * @param row starting row
      * @param col starting column
      * @param dr direction row increment
      * @param dc direction column increment
      * @param symbol the symbol to check for
-     * @return true if there is a run of 4 or more same-symbol cells
+     * @return length of the run, winLength if there is a winning run
      */
-    private boolean hasRunFrom(int row, int col, int dr, int dc, char symbol) {
-        // We need 4 in a row including (row, col)
-        for (int k = 0; k < 4; k++) {
+    private int runFrom(int row, int col, int dr, int dc, char symbol) {
+        // We need winLength in a row including (row, col)
+        for (int k = 0; k < winLength; k++) {
             int r = row + k * dr;
             int c = col + k * dc;
-            if (r < 0 || r >= rows || c < 0 || c >= columns) {
-                return false;
-            }
-            if (grid[r][c] != symbol) {
-                return false;
+            if (r < 0 || r >= rows || c < 0 || c >= columns || grid.get(r, c) != symbol) {
+                return k;
             }
         }
-        return true;
+        return winLength;
     }
 }
@@ -0,0 +1,259 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Solved 7x6 opening positions in a sorted file that is memory-mapped, not
+ * loaded: opening a book reads its 32-byte header, and a lookup is a binary
+ * search over the mapped entries, touching about log2(n) cache lines.
+ *
+ * Positions are keyed by {@link ClassicBitboardBoard#positionKey()} reduced
+ * to the smaller of the key and its mirror, so mirrored openings share an
+ * entry. Every entry is one big-endian {@code long}, sorted ascending:
+ *
+ *   bits 63..9  canonical position key (49 bits)
+ *   bits  8..3  exact score + 32, as scored by {@link Solver}
+ *   bits  2..0  best move column in the canonical orientation
+ *
+ * The low nine bits use the layout of {@link TranspositionTable} data, so
+ * {@link #score(int)} and {@link #move(int)} decode both.
+ *
+ * Books are built offline by {@link #generate}, which solves every position
+ * up to the given number of plies.
+ */
+public final class OpeningBook {
+
+    /** Returned by {@link #probe(long)} when the position is not in the book. */
+    public static final int MISS = 0;
+
+    private static final int MAGIC = 0x43344f42;   // "C4OB"
+    private static final short VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int KEY_SHIFT = 9;
+    private static final long DATA_MASK = (1L << KEY_SHIFT) - 1;
+
+    private final LongBuffer entries;
+    private final int depth;
+    private final int size;
+
+    private OpeningBook(LongBuffer entries, int depth) {
+        this.entries = entries;
+        this.depth = depth;
+        this.size = entries.limit();
+    }
+
+    /**
+     * Maps a book file written by {@link #generate}. The file channel is
+     * closed before this returns; the mapping itself has no explicit release
+     * and lives until the book is garbage collected, so on some platforms
+     * the file cannot be replaced or deleted while a book is reachable.
+     */
+    public static OpeningBook open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long bytes = channel.size();
+            if (bytes < HEADER_BYTES) {
+                throw new IOException("not an opening book");
+            }
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, bytes);
+            if (data.getInt(0) != MAGIC) {
+                throw new IOException("not an opening book");
+            }
+            if (data.getShort(4) != VERSION) {
+                throw new IOException("unsupported opening book version " + data.getShort(4));
+            }
+            if (data.getInt(8) != ClassicBitboardBoard.ROWS || data.getInt(12) != ClassicBitboardBoard.COLUMNS) {
+                throw new IOException("opening book is not for 7x6 boards");
+            }
+            int depth = data.getInt(16);
+            long count = data.getLong(24);
+            if (count < 0 || HEADER_BYTES + count * Long.BYTES != bytes) {
+                throw new IOException("truncated opening book");
+            }
+            LongBuffer entries = data.position(HEADER_BYTES).slice().asLongBuffer();
+            return new OpeningBook(entries, depth);
+        }
+    }
+
+    /**
+     * Solves every undecided position reachable from root with at most depth
+     * discs on the board, with both players alternating, and writes them to
+     * file. Positions are solved children first, so the solver's table
+     * carries results up to their parents.
+     * @param root  starting position, usually the empty board; left as passed in
+     * @param depth largest number of discs of a book position
+     * @return number of positions in the book
+     */
+    public static int generate(ClassicBitboardBoard root, int depth, Solver solver, Path file) throws IOException {
+        if (depth < root.getMoveCount() || depth > ClassicBitboardBoard.ROWS * ClassicBitboardBoard.COLUMNS) {
+            throw new IllegalArgumentException("Invalid depth: " + depth);
+        }
+        Generator generator = new Generator(root, depth, solver);
+        generator.visit();
+        long[] sorted = Arrays.copyOf(generator.entries, generator.count);
+        Arrays.sort(sorted);
+        write(file, depth, sorted);
+        return sorted.length;
+    }
+
+    /**
+     * Offline generator: {@code java OpeningBook <file> <depth> [table MB]}
+     * writes a book of all positions with up to depth discs.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: OpeningBook <file> <depth> [table MB]");
+            System.exit(2);
+        }
+        Path file = Path.of(args[0]);
+        int depth = Integer.parseInt(args[1]);
+        long tableBytes = (args.length > 2 ? Long.parseLong(args[2]) : 256L) << 20;
+        long start = System.nanoTime();
+        int positions = generate(new ClassicBitboardBoard(), depth, new Solver(new TranspositionTable(tableBytes)), file);
+        System.out.printf("%d positions up to %d plies in %.1f s -> %s%n",
+                          positions, depth, (System.nanoTime() - start) / 1e9, file);
+    }
+
+    /** Largest number of discs of a position in the book. */
+    public int getDepth() {
+        return depth;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Looks up a position by its {@link ClassicBitboardBoard#positionKey()}.
+     * @return packed data for {@link #score} and {@link #move}, or {@link #MISS}
+     */
+    public int probe(long key) {
+        long mirror = ClassicBitboardBoard.mirrorKey(key);
+        boolean flipped = mirror < key;
+        long canonical = flipped ? mirror : key;
+
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long entry = entries.get(mid);
+            long entryKey = entry >>> KEY_SHIFT;
+            if (entryKey < canonical) {
+                low = mid + 1;
+            } else if (entryKey > canonical) {
+                high = mid - 1;
+            } else {
+                int data = (int) (entry & DATA_MASK);
+                return flipped ? flipMove(data) : data;
+            }
+        }
+        return MISS;
+    }
+
+    /** Looks up the position on board, with the player to move as the board reports it. */
+    public int probe(ClassicBitboardBoard board) {
+        if (board.getMoveCount() > depth || board.getWinLength() != 4) {
+            return MISS;
+        }
+        return probe(board.positionKey());
+    }
+
+    public static int score(int data) {
+        return ((data >>> 3) & 63) - 32;
+    }
+
+    public static int move(int data) {
+        return data & 7;
+    }
+
+    private static int flipMove(int data) {
+        return (data & ~7) | (ClassicBitboardBoard.COLUMNS - 1 - (data & 7));
+    }
+
+    private static void write(Path file, int depth, long[] sorted) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+            buffer.putInt(MAGIC);
+            buffer.putShort(VERSION);
+            buffer.putShort((short) 0);
+            buffer.putInt(ClassicBitboardBoard.ROWS);
+            buffer.putInt(ClassicBitboardBoard.COLUMNS);
+            buffer.putInt(depth);
+            buffer.putInt(0);
+            buffer.putLong(sorted.length);
+            for (long entry : sorted) {
+                if (!buffer.hasRemaining()) {
+                    drain(channel, buffer);
+                }
+                buffer.putLong(entry);
+            }
+            drain(channel, buffer);
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /** Depth-first walk over the positions of a book, solving each on the way back up. */
+    private static final class Generator {
+
+        private final ClassicBitboardBoard board;
+        private final int depth;
+        private final Solver solver;
+        private final Set<Long> seen = new HashSet<>();
+        long[] entries = new long[1024];
+        int count;
+
+        Generator(ClassicBitboardBoard board, int depth, Solver solver) {
+            this.board = board;
+            this.depth = depth;
+            this.solver = solver;
+        }
+
+        void visit() {
+            if (board.hasConnectFour() || board.isFull()) {
+                return;
+            }
+            long key = board.positionKey();
+            long mirror = ClassicBitboardBoard.mirrorKey(key);
+            long canonical = Math.min(key, mirror);
+            if (!seen.add(canonical)) {
+                return;
+            }
+            if (board.getMoveCount() < depth) {
+                char symbol = board.getSymbolToMove();
+                for (int column = 0; column < ClassicBitboardBoard.COLUMNS; column++) {
+                    if (board.isColumnPlayable(column)) {
+                        board.dropDisc(column, symbol);
+                        visit();
+                        board.undoMove();
+                    }
+                }
+            }
+            Solver.Result result = solver.solve(board);
+            if (!result.isComplete() || result.getBestMove() < 0) {
+                throw new IllegalStateException("solver budget ran out; books need exact scores and moves");
+            }
+            int move = result.getBestMove();
+            if (mirror < key) {
+                move = ClassicBitboardBoard.COLUMNS - 1 - move;
+            }
+            if (count == entries.length) {
+                entries = Arrays.copyOf(entries, count * 2);
+            }
+            entries[count++] = canonical << KEY_SHIFT | (long) (result.getScore() + 32) << 3 | move;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+// OpeningBookTest.java
+
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class OpeningBookTest {
+
+    // A quiet middlegame with 24 discs, so the book below solves quickly
+    private static final int[] ROOT_MOVES = {
+        1, 0, 6, 0, 1, 6, 1, 1, 6, 1, 2, 2, 1, 5, 6, 6, 2, 2, 6, 2, 4, 3, 0, 3
+    };
+
+    private Path file;
+
+    @Before
+    public void createFile() throws IOException {
+        file = Files.createTempFile("opening", ".book");
+    }
+
+    @After
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void bookAnswersMatchTheSolver() throws IOException {
+        ClassicBitboardBoard root = rootPosition();
+        int depth = root.getMoveCount() + 2;
+        int positions = OpeningBook.generate(root, depth, new Solver(), file);
+        assertEquals("root left as it was", ROOT_MOVES.length, root.getMoveCount());
+        assertTrue(positions > 1);
+
+        OpeningBook book = OpeningBook.open(file);
+        assertEquals(positions, book.size());
+        assertEquals(depth, book.getDepth());
+        checkSubtree(book, root, depth);
+    }
+
+    @Test
+    public void mirroredPositionIsFound() throws IOException {
+        ClassicBitboardBoard root = rootPosition();
+        OpeningBook.generate(root, root.getMoveCount() + 1, new Solver(), file);
+
+        ClassicBitboardBoard mirrored = new ClassicBitboardBoard();
+        for (int column : ROOT_MOVES) {
+            mirrored.dropDisc(ClassicBitboardBoard.COLUMNS - 1 - column, mirrored.getSymbolToMove());
+        }
+        mirrored.dropDisc(6, mirrored.getSymbolToMove());
+        root.dropDisc(0, root.getSymbolToMove());
+
+        OpeningBook book = OpeningBook.open(file);
+        int original = book.probe(root);
+        int flipped = book.probe(mirrored);
+        assertNotEquals(OpeningBook.MISS, original);
+        assertEquals(OpeningBook.score(original), OpeningBook.score(flipped));
+        assertEquals(ClassicBitboardBoard.COLUMNS - 1 - OpeningBook.move(original), OpeningBook.move(flipped));
+
+        mirrored.dropDisc(3, mirrored.getSymbolToMove());
+        assertEquals("deeper than the book", OpeningBook.MISS, book.probe(mirrored));
+    }
+
+    @Test
+    public void solverAnswersBookPositionsWithoutSearching() throws IOException {
+        ClassicBitboardBoard root = rootPosition();
+        OpeningBook.generate(root, root.getMoveCount(), new Solver(), file);
+        Solver.Result expected = new Solver().solve(root);
+
+        Solver solver = new Solver();
+        OpeningBook book = OpeningBook.open(file);
+        solver.setOpeningBook(book);
+        Solver.Result result = solver.solve(root);
+        assertTrue(result.isComplete());
+        assertEquals(0, result.getNodes());
+        assertEquals(expected.getScore(), result.getScore());
+    }
+
+    private static void checkSubtree(OpeningBook book, ClassicBitboardBoard board, int depth) {
+        if (board.hasConnectFour() || board.isFull()) {
+            return;
+        }
+        int data = book.probe(board);
+        assertNotEquals("position with " + board.getMoveCount() + " discs in book", OpeningBook.MISS, data);
+        Solver.Result solved = new Solver().solve(board);
+        assertEquals(solved.getScore(), OpeningBook.score(data));
+
+        // the stored move must achieve the score
+        int move = OpeningBook.move(data);
+        board.dropDisc(move, board.getSymbolToMove());
+        int after = board.hasConnectFour() ? solved.getScore()
+                                           : board.isFull() ? 0 : -new Solver().solve(board).getScore();
+        board.undoMove();
+        assertEquals("book move keeps the score", solved.getScore(), after);
+
+        if (board.getMoveCount() < depth) {
+            for (int column = 0; column < ClassicBitboardBoard.COLUMNS; column++) {
+                if (board.isColumnPlayable(column)) {
+                    board.dropDisc(column, board.getSymbolToMove());
+                    checkSubtree(book, board, depth);
+                    board.undoMove();
+                }
+            }
+        }
+    }
+
+    private static ClassicBitboardBoard rootPosition() {
+        ClassicBitboardBoard board = new ClassicBitboardBoard();
+        for (int column : ROOT_MOVES) {
+            board.dropDisc(column, board.getSymbolToMove());
+            assertFalse("root must be undecided", board.hasConnectFour());
+        }
+        return board;
+    }
+}
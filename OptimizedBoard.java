@@ -1,71 +1,107 @@
 // OptimizedBoard.java
 public class OptimizedBoard extends ConnectFourBoard {
 
+    // Cells read by the last win check, for metrics
+    private long cellsInspected;
+
     public OptimizedBoard(int rows, int columns) {
         super(rows, columns);
     }
 
+    public OptimizedBoard(int rows, int columns, int winLength) {
+        super(rows, columns, winLength);
+    }
+
+    protected OptimizedBoard(int rows, int columns, int winLength, CellStorage storage) {
+        super(rows, columns, winLength, storage);
+    }
+
     /**
      * Optimized win check:
      * - Uses the last move at (lastRow, lastCol).
      * - Looks along 4 lines (horizontal, vertical, 2 diagonals).
-     * - Only needs to look up to 3 cells away in each direction (Connect-4).
+     * - Only needs to look up to winLength - 1 cells away in each direction.
      *
-     * Asymptotically: O(1) work per call.
+     * Asymptotically: O(winLength) work per call, independent of board size.
      */
     @Override
     public boolean hasConnectFour() {
         if (lastRow < 0 || lastCol < 0) {
             // No moves yet
+            cellsInspected = 0;
             return false;
         }
 
-        char symbol = grid[lastRow][lastCol];
+        char symbol = cellAt(lastRow, lastCol);
         if (symbol == ' ') {
+            cellsInspected = 1;
             return false;
         }
 
+        // Cells are counted in a local and stored once, so the walks write no fields
+        long cells = 1;
+        int forward;
+        int backward;
+
         // Horizontal: left + right
-        if (countDirection(lastRow, lastCol, 0, 1, symbol) +
-            countDirection(lastRow, lastCol, 0, -1, symbol) - 1 >= 4) {
+        forward = countDirection(lastRow, lastCol, 0, 1, symbol);
+        backward = countDirection(lastRow, lastCol, 0, -1, symbol);
+        cells += cellsRead(lastRow, lastCol, 0, 1, forward) + cellsRead(lastRow, lastCol, 0, -1, backward);
+        if (forward + backward - 1 >= winLength) {
+            cellsInspected = cells;
             return true;
         }
 
         // Vertical: up + down
-        if (countDirection(lastRow, lastCol, 1, 0, symbol) +
-            countDirection(lastRow, lastCol, -1, 0, symbol) - 1 >= 4) {
+        forward = countDirection(lastRow, lastCol, 1, 0, symbol);
+        backward = countDirection(lastRow, lastCol, -1, 0, symbol);
+        cells += cellsRead(lastRow, lastCol, 1, 0, forward) + cellsRead(lastRow, lastCol, -1, 0, backward);
+        if (forward + backward - 1 >= winLength) {
+            cellsInspected = cells;
             return true;
         }
 
         // Diagonal: down-right + up-left
-        if (countDirection(lastRow, lastCol, 1, 1, symbol) +
-            countDirection(lastRow, lastCol, -1, -1, symbol) - 1 >= 4) {
+        forward = countDirection(lastRow, lastCol, 1, 1, symbol);
+        backward = countDirection(lastRow, lastCol, -1, -1, symbol);
+        cells += cellsRead(lastRow, lastCol, 1, 1, forward) + cellsRead(lastRow, lastCol, -1, -1, backward);
+        if (forward + backward - 1 >= winLength) {
+            cellsInspected = cells;
             return true;
         }
 
         // Anti-diagonal: up-right + down-left
-        if (countDirection(lastRow, lastCol, -1, 1, symbol) +
-            countDirection(lastRow, lastCol, 1, -1, symbol) - 1 >= 4) {
+        forward = countDirection(lastRow, lastCol, -1, 1, symbol);
+        backward = countDirection(lastRow, lastCol, 1, -1, symbol);
+        cells += cellsRead(lastRow, lastCol, -1, 1, forward) + cellsRead(lastRow, lastCol, 1, -1, backward);
+        if (forward + backward - 1 >= winLength) {
+            cellsInspected = cells;
             return true;
         }
 
+        cellsInspected = cells;
         return false;
     }
 
+    @Override
+    public long getCellsInspected() {
+        return cellsInspected;
+    }
+
     /**
      * Count how many same-symbol cells we see starting from (row, col)
      * and walking in direction (dr, dc), including the starting cell.
-     * We stop after 3 steps, because for connect-four we never need
-     * to look further than 3 cells away.
+     * We stop after winLength - 1 steps, because a winning line through
+     * the start never reaches further than that.
      */
     private int countDirection(int row, int col, int dr, int dc, char symbol) {
         int count = 0;
         int r = row;
         int c = col;
 
-        for (int step = 0; step < 4; step++) { // max 4 cells including start
+        for (int step = 0; step < winLength; step++) { // max winLength cells including start
             if (r < 0 || r >= rows || c < 0 || c >= columns) break;
-            if (grid[r][c] != symbol) break;
+            if (cellAt(r, c) != symbol) break;
             count++;
             r += dr;
             c += dc;
@@ -0,0 +1,216 @@
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Lazy SMP: several {@link Solver}s search the same root at once, sharing
+ * one lock-free {@link TranspositionTable}. Nothing is split up between the
+ * workers; they help each other only through the table, where one worker's
+ * results cut off the others' searches. To keep them from walking the same
+ * tree in lockstep, every helper uses a slightly different move order and
+ * first window probe (see {@link Solver}).
+ *
+ * The first worker to finish proves the result and stops the rest; the time
+ * budget stops all of them. Scores are exact whichever worker finishes, the
+ * best move may be any column achieving the score.
+ */
+public class ParallelSolver implements AutoCloseable {
+
+    private static final long DEFAULT_TABLE_BYTES = 64L << 20;
+
+    private final TranspositionTable table;
+    private final Solver[] workers;
+    private final ClassicBitboardBoard[] boards;
+    private final ForkJoinPool pool;
+    private final AtomicBoolean abort = new AtomicBoolean();
+
+    public ParallelSolver(int threads) {
+        this(threads, new TranspositionTable(DEFAULT_TABLE_BYTES));
+    }
+
+    /** Uses the given table for all workers; it may be kept across solves. */
+    public ParallelSolver(int threads, TranspositionTable table) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        this.table = table;
+        this.workers = new Solver[threads];
+        this.boards = new ClassicBitboardBoard[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Solver(table, t);
+            workers[t].setAbortFlag(abort);
+        }
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    public int getThreads() {
+        return workers.length;
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /** Table probes that found their position, summed over the workers' own counters. */
+    public long getTableHits() {
+        long hits = 0;
+        for (Solver worker : workers) {
+            hits += worker.getTableHits();
+        }
+        return hits;
+    }
+
+    public long getTableMisses() {
+        long misses = 0;
+        for (Solver worker : workers) {
+            misses += worker.getTableMisses();
+        }
+        return misses;
+    }
+
+    public long getTableStores() {
+        long stores = 0;
+        for (Solver worker : workers) {
+            stores += worker.getTableStores();
+        }
+        return stores;
+    }
+
+    /** Stores that had to evict an entry for a different position, over all workers. */
+    public long getTableCollisions() {
+        long collisions = 0;
+        for (Solver worker : workers) {
+            collisions += worker.getTableCollisions();
+        }
+        return collisions;
+    }
+
+    /** Answers book positions from the book in every worker; null to search everything. */
+    public void setOpeningBook(OpeningBook book) {
+        for (Solver worker : workers) {
+            worker.setOpeningBook(book);
+        }
+    }
+
+    /** Stops each worker after roughly this many nodes. */
+    public void setNodeLimit(long nodeLimit) {
+        for (Solver worker : workers) {
+            worker.setNodeLimit(nodeLimit);
+        }
+    }
+
+    /** Stops the search after roughly this many milliseconds. */
+    public void setTimeLimitMillis(long millis) {
+        for (Solver worker : workers) {
+            worker.setTimeLimitMillis(millis);
+        }
+    }
+
+    /**
+     * Solves the position for the player to move. Every worker searches its
+     * own copy; the board passed in is not touched.
+     * @return the first complete result, or the tightest bounds proven by
+     *         any worker if the budget ran out; nodes are summed over workers
+     * @throws IllegalArgumentException if the position is already won or full
+     */
+    public Solver.Result solve(ClassicBitboardBoard position) {
+        if (position.getWinLength() != 4) {
+            throw new IllegalArgumentException("solver scores connect-four only");
+        }
+        if (position.hasConnectFour() || position.isFull()) {
+            throw new IllegalArgumentException("position is already decided");
+        }
+        long start = System.nanoTime();
+        abort.set(false);
+
+        ExecutorCompletionService<Solver.Result> done = new ExecutorCompletionService<>(pool);
+        for (int t = 0; t < workers.length; t++) {
+            ClassicBitboardBoard board = boardFor(t, position);
+            Solver worker = workers[t];
+            done.submit(() -> {
+                Solver.Result result = worker.solve(board);
+                if (result.isComplete() && result.getBestMove() >= 0) {
+                    abort.set(true);
+                }
+                return result;
+            });
+        }
+
+        Solver.Result complete = null;
+        int lower = Integer.MIN_VALUE;
+        int upper = Integer.MAX_VALUE;
+        long nodes = 0;
+        int pending = workers.length;
+        try {
+            while (pending > 0) {
+                Future<Solver.Result> future = done.take();
+                pending--;
+                Solver.Result result = future.get();
+                nodes += result.getNodes();
+                lower = Math.max(lower, result.getLowerBound());
+                upper = Math.min(upper, result.getUpperBound());
+                // A worker stopped after its score was exact may lack the move; prefer one that has it
+                if (result.isComplete() && (complete == null || complete.getBestMove() < 0)) {
+                    complete = result;
+                }
+            }
+        } catch (InterruptedException e) {
+            abort.set(true);
+            awaitWorkers(done, pending);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("search interrupted", e);
+        } catch (ExecutionException e) {
+            abort.set(true);
+            awaitWorkers(done, pending);
+            throw new IllegalStateException("search worker failed", e.getCause());
+        }
+
+        long elapsed = System.nanoTime() - start;
+        if (complete != null) {
+            return new Solver.Result(complete.getLowerBound(), complete.getUpperBound(), complete.getBestMove(),
+                                     nodes, elapsed, true);
+        }
+        return new Solver.Result(lower, upper, -1, nodes, elapsed, false);
+    }
+
+    @Override
+    public void close() {
+        abort.set(true);
+        pool.shutdown();
+    }
+
+    /**
+     * Waits for the workers still searching after the abort flag was raised,
+     * so none of them is left on its board when the next solve resets it.
+     * Keeps waiting through interrupts and restores the interrupt status.
+     */
+    private static void awaitWorkers(CompletionService<Solver.Result> done, int pending) {
+        boolean interrupted = false;
+        while (pending > 0) {
+            try {
+                done.take();
+                pending--;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Worker t's board, reused across solves, set to the given position. */
+    private ClassicBitboardBoard boardFor(int t, ClassicBitboardBoard position) {
+        ClassicBitboardBoard board = boards[t];
+        if (board == null || board.getFirstSymbol() != position.getFirstSymbol()
+                || board.getSecondSymbol() != position.getSecondSymbol()) {
+            board = new ClassicBitboardBoard(position.getFirstSymbol(), position.getSecondSymbol());
+            boards[t] = board;
+        }
+        board.copyFrom(position);
+        return board;
+    }
+}
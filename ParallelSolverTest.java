@@ -0,0 +1,119 @@
+// ParallelSolverTest.java
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class ParallelSolverTest {
+
+    // The first 16 discs of the OpeningBookTest middlegame, about a million nodes to solve
+    private static final int[] ROOT_MOVES = {1, 0, 6, 0, 1, 6, 1, 1, 6, 1, 2, 2, 1, 5, 6, 6};
+
+    @Test
+    public void scoresMatchTheSingleThreadedSolver() {
+        Random random = new Random(7);
+        try (ParallelSolver parallel = new ParallelSolver(4)) {
+            for (int i = 0; i < 20; i++) {
+                ClassicBitboardBoard board = randomPosition(random, 30);
+                int moves = board.getMoveCount();
+                long key = board.positionKey();
+                long hash = board.getZobristHash();
+                Solver.Result expected = new Solver().solve(board);
+                Solver.Result result = parallel.solve(board);
+
+                assertTrue(result.isComplete());
+                assertEquals(expected.getScore(), result.getScore());
+                assertEquals("solve leaves the position as it was", moves, board.getMoveCount());
+                assertEquals(key, board.positionKey());
+                assertEquals(hash, board.getZobristHash());
+                assertMoveKeepsScore(board, result);
+            }
+        }
+    }
+
+    @Test
+    public void interruptedSolveLeavesNoWorkerBehind() {
+        ClassicBitboardBoard root = rootPosition();
+        Solver.Result expected = new Solver().solve(root);
+        try (ParallelSolver parallel = new ParallelSolver(4)) {
+            Thread.currentThread().interrupt();
+            try {
+                parallel.solve(root);
+                fail("interrupted before the search");
+            } catch (IllegalStateException expectedFailure) {
+                assertTrue("interrupt status restored", Thread.interrupted());
+            }
+            // Every worker has left its board, so the next solve starts clean
+            Solver.Result result = parallel.solve(root);
+            assertTrue(result.isComplete());
+            assertEquals(expected.getScore(), result.getScore());
+        }
+    }
+
+    @Test
+    public void sharedTableIsKeptAcrossSolves() {
+        ClassicBitboardBoard root = rootPosition();
+        try (ParallelSolver parallel = new ParallelSolver(3)) {
+            Solver.Result first = parallel.solve(root);
+            Solver.Result second = parallel.solve(root);
+            assertEquals(first.getScore(), second.getScore());
+            assertTrue("second solve answered from the table", second.getNodes() < first.getNodes());
+            assertTrue(parallel.getTableHits() > 0);
+            assertTrue(parallel.getTableStores() > 0);
+            assertTrue(parallel.getTableMisses() > 0);
+        }
+    }
+
+    @Test
+    public void timeLimitStopsAllWorkers() {
+        ClassicBitboardBoard empty = new ClassicBitboardBoard();
+        try (ParallelSolver parallel = new ParallelSolver(2)) {
+            parallel.setTimeLimitMillis(50);
+            Solver.Result result = parallel.solve(empty);
+            assertFalse(result.isComplete());
+            assertEquals(-1, result.getBestMove());
+            assertTrue(result.getLowerBound() <= result.getUpperBound());
+            assertEquals(0, empty.getMoveCount());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNoThreads() {
+        new ParallelSolver(0);
+    }
+
+    private static void assertMoveKeepsScore(ClassicBitboardBoard board, Solver.Result result) {
+        int move = result.getBestMove();
+        assertTrue(board.isColumnPlayable(move));
+        board.dropDisc(move, board.getSymbolToMove());
+        int after = board.hasConnectFour() ? result.getScore()
+                                           : board.isFull() ? 0 : -new Solver().solve(board).getScore();
+        board.undoMove();
+        assertEquals("best move keeps the score", result.getScore(), after);
+    }
+
+    /** Random alternating game without a win, stopped after the given number of discs. */
+    private static ClassicBitboardBoard randomPosition(Random random, int discs) {
+        ClassicBitboardBoard board = new ClassicBitboardBoard();
+        while (board.getMoveCount() < discs) {
+            int column = random.nextInt(ClassicBitboardBoard.COLUMNS);
+            if (!board.isColumnPlayable(column)) {
+                continue;
+            }
+            board.dropDisc(column, board.getSymbolToMove());
+            if (board.hasConnectFour()) {
+                board.reset();
+            }
+        }
+        return board;
+    }
+
+    private static ClassicBitboardBoard rootPosition() {
+        ClassicBitboardBoard board = new ClassicBitboardBoard();
+        for (int column : ROOT_MOVES) {
+            board.dropDisc(column, board.getSymbolToMove());
+        }
+        return board;
+    }
+}
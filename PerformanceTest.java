@@ -2,6 +2,10 @@
 
 import java.util.Random;
 
+/**
+ * Quick wall-clock smoke comparison. For numbers with warmup, forks and
+ * allocation rates use the JMH suite under bench/ (see README).
+ */
 public class PerformanceTest {
 
     public static void main(String[] args) {
@@ -13,7 +17,7 @@ public class PerformanceTest {
         System.out.println("Simulating " + games + " random games...\n");
 
         long naiveTime = runBenchmark(new NaiveBoard(rows, columns), games);
-        long optTime   = runBenchmark(new Optimized(rows, columns), games);
+        long optTime   = runBenchmark(new OptimizedBoard(rows, columns), games);
 
         System.out.println("Naive total time:      " + naiveTime + " ms");
         System.out.println("Optimized total time:  " + optTime   + " ms");
@@ -0,0 +1,377 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+/**
+ * Perft: counts every move sequence of a given length from a position, as a
+ * correctness oracle and a throughput benchmark for move generation and win
+ * detection deep in the game tree.
+ *
+ * The walk plays and takes back moves on the board (dropDisc / undoMove),
+ * calling hasConnectFour() after every move. A move that wins ends its
+ * line: it is counted as a win and not searched further. The side to move
+ * is taken from the root: the player who did not make the last move, or
+ * 'X' on an empty board as in {@link SimulationEngine}. The two players
+ * then alternate.
+ *
+ * The first {@link #SPLIT_DEPTH} plies are walked on the calling thread and
+ * the subtrees below them run as fork-join tasks, each on a worker's own
+ * board brought to the subtree root with {@link ConnectFourBoard#copyFrom}.
+ * An optional hash table caches subtree counts by Zobrist hash and depth,
+ * so transpositions are counted once; the counts stay exactly the same.
+ */
+public class Perft implements AutoCloseable {
+
+    private static final char FIRST = 'X';
+    private static final char SECOND = 'O';
+
+    // Plies expanded on the calling thread before subtrees are handed out (49 tasks on 7 columns)
+    static final int SPLIT_DEPTH = 2;
+
+    private final Supplier<? extends ConnectFourBoard> boardFactory;
+    private final ForkJoinPool pool;
+    private final Table table;
+
+    public Perft(Supplier<? extends ConnectFourBoard> boardFactory, int parallelism) {
+        this(boardFactory, parallelism, 0);
+    }
+
+    /**
+     * @param hashBytes size of the transposition table, or 0 to count every
+     *                  subtree in full
+     */
+    public Perft(Supplier<? extends ConnectFourBoard> boardFactory, int parallelism, long hashBytes) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+        if (hashBytes < 0) {
+            throw new IllegalArgumentException("hashBytes must not be negative");
+        }
+        this.boardFactory = boardFactory;
+        this.pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        this.table = hashBytes > 0 ? new Table(hashBytes) : null;
+    }
+
+    /**
+     * Counts the move sequences of depth plies from root. The root is left
+     * as it was passed in.
+     * @throws IllegalArgumentException if depth is negative or root is already won
+     */
+    public Result run(ConnectFourBoard root, int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("Invalid depth: " + depth);
+        }
+        if (root.hasConnectFour()) {
+            throw new IllegalArgumentException("root position is already won");
+        }
+        long start = System.nanoTime();
+        char[] sides = sides(root);
+        Counts total = new Counts();
+        if (depth == 0) {
+            total.positions = 1;
+        } else if (pool == null || depth <= SPLIT_DEPTH) {
+            walk(root, depth, sides[0], sides[1], table, total);
+        } else {
+            List<Subtree> subtrees = new ArrayList<>();
+            ThreadLocal<ConnectFourBoard> boards = ThreadLocal.withInitial(boardFactory::get);
+            Subtree.Context context = new Subtree.Context(root, sides[0], sides[1], boards, table);
+            split(root, depth, sides[0], sides[1], new int[SPLIT_DEPTH], 0, context, subtrees, total);
+            pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(subtrees)));
+            for (Subtree subtree : subtrees) {
+                total.add(subtree.counts);
+            }
+        }
+        return new Result(depth, total.positions, total.wins, total.moves, System.nanoTime() - start);
+    }
+
+    /**
+     * Sequential perft on board itself, without hashing.
+     * @see #run
+     */
+    public static Result count(ConnectFourBoard board, int depth) {
+        try (Perft perft = new Perft(() -> board, 1)) {
+            return perft.run(board, depth);
+        }
+    }
+
+    /**
+     * Nodes per second for every implementation and depth:
+     * {@code java Perft [depth] [threads] [hash MB]} on the 7x6 board.
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long hashBytes = (args.length > 2 ? Long.parseLong(args[2]) : 0L) << 20;
+        List<Supplier<ConnectFourBoard>> factories = List.of(
+            () -> new NaiveBoard(6, 7),
+            () -> new OptimizedBoard(6, 7),
+            () -> new BitboardBoard(6, 7),
+            () -> new RunLengthBoard(6, 7),
+            ClassicBitboardBoard::new);
+        System.out.printf("%-22s %5s %14s %12s %14s%n", "board", "depth", "positions", "wins", "nodes/s");
+        for (Supplier<ConnectFourBoard> factory : factories) {
+            ConnectFourBoard board = factory.get();
+            try (Perft perft = new Perft(factory, threads, hashBytes)) {
+                for (int d = 1; d <= depth; d++) {
+                    Result result = perft.run(board, d);
+                    System.out.printf("%-22s %5d %14d %12d %14.0f%n", board.getClass().getSimpleName(), d,
+                                      result.getPositions(), result.getWins(), result.getNodesPerSecond());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Walks the first plies on the calling thread: counts what ends there
+     * and records every position at SPLIT_DEPTH as a subtree task.
+     */
+    private static void split(ConnectFourBoard board, int depth, char symbol, char other, int[] path, int ply,
+                              Subtree.Context context, List<Subtree> subtrees, Counts counts) {
+        for (int column = 0; column < board.getColumns(); column++) {
+            if (!board.isColumnPlayable(column)) {
+                continue;
+            }
+            board.dropDisc(column, symbol);
+            counts.moves++;
+            path[ply] = column;
+            if (board.hasConnectFour()) {
+                counts.wins++;
+            } else if (ply + 1 == SPLIT_DEPTH) {
+                subtrees.add(new Subtree(context, path.clone(), depth - SPLIT_DEPTH));
+            } else {
+                split(board, depth, other, symbol, path, ply + 1, context, subtrees, counts);
+            }
+            board.undoMove();
+        }
+    }
+
+    /** Adds the counts of the depth plies below board, which is not won and where symbol moves, to counts. */
+    private static void walk(ConnectFourBoard board, int depth, char symbol, char other, Table table, Counts counts) {
+        boolean cached = table != null && depth >= 2;
+        if (cached && table.probe(board.getZobristHash(), symbol, depth, counts)) {
+            return;
+        }
+        long positionsBefore = counts.positions;
+        long winsBefore = counts.wins;
+
+        int columns = board.getColumns();
+        for (int column = 0; column < columns; column++) {
+            if (!board.isColumnPlayable(column)) {
+                continue;
+            }
+            board.dropDisc(column, symbol);
+            counts.moves++;
+            boolean won = board.hasConnectFour();
+            if (won) {
+                counts.wins++;
+            }
+            if (depth == 1) {
+                counts.positions++;
+            } else if (!won) {
+                walk(board, depth - 1, other, symbol, table, counts);
+            }
+            board.undoMove();
+        }
+
+        if (cached) {
+            table.store(board.getZobristHash(), symbol, depth, counts.positions - positionsBefore, counts.wins - winsBefore);
+        }
+    }
+
+    /**
+     * The symbol to move at root and the other player's. The last disc
+     * dropped belongs to the other player; the one to move is the first
+     * different symbol among the earlier discs, or the X/O counterpart if
+     * only one player has moved.
+     */
+    private static char[] sides(ConnectFourBoard root) {
+        if (root instanceof ClassicBitboardBoard) {
+            ClassicBitboardBoard classic = (ClassicBitboardBoard) root;
+            char toMove = classic.getSymbolToMove();
+            return new char[] {toMove, toMove == classic.getFirstSymbol() ? classic.getSecondSymbol() : classic.getFirstSymbol()};
+        }
+        if (root.getMoveCount() == 0) {
+            return new char[] {FIRST, SECOND};
+        }
+        char last = root.getCell(root.getLastRow(), root.getLastCol());
+        int rows = root.getRows();
+        int[] heights = new int[root.getColumns()];
+        for (int ply = 0; ply < root.getMoveCount(); ply++) {
+            int col = root.getMoveColumn(ply);
+            char symbol = root.getCell(rows - 1 - heights[col]++, col);
+            if (symbol != last) {
+                return new char[] {symbol, last};
+            }
+        }
+        return new char[] {last == FIRST ? SECOND : FIRST, last};
+    }
+
+    /** One subtree below SPLIT_DEPTH, counted on the worker thread's own board. */
+    private static final class Subtree extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        /** What all subtrees of one run share; root is only read while they run. */
+        static final class Context {
+
+            final ConnectFourBoard root;
+            // Side to move at root and the other player
+            final char symbol;
+            final char other;
+            final ThreadLocal<ConnectFourBoard> boards;
+            final Table table;
+
+            Context(ConnectFourBoard root, char symbol, char other, ThreadLocal<ConnectFourBoard> boards, Table table) {
+                this.root = root;
+                this.symbol = symbol;
+                this.other = other;
+                this.boards = boards;
+                this.table = table;
+            }
+        }
+
+        private final Context context;
+        private final int[] path;
+        private final int depth;
+        final Counts counts = new Counts();
+
+        Subtree(Context context, int[] path, int depth) {
+            this.context = context;
+            this.path = path;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            ConnectFourBoard board = context.boards.get();
+            board.copyFrom(context.root);
+            char symbol = context.symbol;
+            char other = context.other;
+            for (int column : path) {
+                board.dropDisc(column, symbol);
+                char next = other;
+                other = symbol;
+                symbol = next;
+            }
+            walk(board, depth, symbol, other, context.table, counts);
+        }
+    }
+
+    private static final class Counts {
+
+        long positions;
+        long wins;
+        long moves;
+
+        void add(Counts other) {
+            positions += other.positions;
+            wins += other.wins;
+            moves += other.moves;
+        }
+    }
+
+    /**
+     * Subtree counts by position and depth, shared by all workers without
+     * locks. Every slot holds three longs: a check word (key ^ positions ^
+     * wins) and the two counts. A slot torn by a racing write fails the
+     * check and reads as a miss, so a probe never returns mixed counts.
+     */
+    private static final class Table {
+
+        // Odd constants that spread the depth and the side to move over all key bits
+        private static final long DEPTH_MIX = 0x9E3779B97F4A7C15L;
+        private static final long SIDE_MIX = 0xC2B2AE3D27D4EB4FL;
+
+        private final long[] slots;
+        private final int mask;
+
+        Table(long bytes) {
+            long capacity = Long.highestOneBit(Math.max(1, bytes / (3 * Long.BYTES)));
+            capacity = Math.min(capacity, 1L << 28);
+            this.slots = new long[(int) capacity * 3];
+            this.mask = (int) capacity - 1;
+        }
+
+        boolean probe(long hash, char symbol, int depth, Counts counts) {
+            long key = key(hash, symbol, depth);
+            int i = 3 * ((int) (key ^ key >>> 32) & mask);
+            long positions = slots[i + 1];
+            long wins = slots[i + 2];
+            if ((slots[i] ^ positions ^ wins) != key) {
+                return false;
+            }
+            counts.positions += positions;
+            counts.wins += wins;
+            return true;
+        }
+
+        void store(long hash, char symbol, int depth, long positions, long wins) {
+            long key = key(hash, symbol, depth);
+            int i = 3 * ((int) (key ^ key >>> 32) & mask);
+            slots[i] = key ^ positions ^ wins;
+            slots[i + 1] = positions;
+            slots[i + 2] = wins;
+        }
+
+        // Roots that did not alternate X and O can reach the same discs with either player to move
+        private static long key(long hash, char symbol, int depth) {
+            return hash ^ depth * DEPTH_MIX ^ symbol * SIDE_MIX;
+        }
+    }
+
+    /** Counts of one perft run. */
+    public static final class Result {
+
+        private final int depth;
+        private final long positions;
+        private final long wins;
+        private final long moves;
+        private final long elapsedNanos;
+
+        Result(int depth, long positions, long wins, long moves, long elapsedNanos) {
+            this.depth = depth;
+            this.positions = positions;
+            this.wins = wins;
+            this.moves = moves;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        /** Move sequences of exactly depth plies in which no earlier move won. */
+        public long getPositions() {
+            return positions;
+        }
+
+        /** Move sequences of at most depth plies whose last move won. */
+        public long getWins() {
+            return wins;
+        }
+
+        /** Moves actually played; fewer than the tree holds when the hash table cut subtrees. */
+        public long getMoves() {
+            return moves;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /** Moves played (each with a win check) per second. */
+        public double getNodesPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : moves * 1e9 / elapsedNanos;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+// PerftTest.java
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class PerftTest {
+
+    // Move sequences of 1..8 plies from the empty 7x6 board, and those ending in a win
+    private static final long[] POSITIONS = {1, 7, 49, 343, 2401, 16807, 117649, 823536, 5673234};
+    private static final long[] WINS = {0, 0, 0, 0, 0, 0, 0, 13032, 57462};
+
+    @Test
+    public void emptyBoardCountsMatchKnownValues() {
+        for (int depth = 0; depth <= 7; depth++) {
+            Perft.Result result = Perft.count(new ClassicBitboardBoard(), depth);
+            assertEquals("positions at depth " + depth, POSITIONS[depth], result.getPositions());
+            assertEquals("wins at depth " + depth, WINS[depth], result.getWins());
+        }
+    }
+
+    @Test
+    public void implementationsAgree() {
+        ConnectFourBoard[] boards = {
+            new NaiveBoard(6, 7),
+            new OptimizedBoard(6, 7),
+            new BitboardBoard(6, 7),
+            new RunLengthBoard(6, 7),
+            new SparseBoard(6, 7)
+        };
+        for (ConnectFourBoard board : boards) {
+            playOpening(board);
+            Perft.Result result = Perft.count(board, 5);
+            Perft.Result expected = Perft.count(openingOn(new ClassicBitboardBoard()), 5);
+            String name = board.getClass().getSimpleName();
+            assertEquals(name, expected.getPositions(), result.getPositions());
+            assertEquals(name, expected.getWins(), result.getWins());
+            assertEquals(name + " left as it was", 9, board.getMoveCount());
+        }
+    }
+
+    @Test
+    public void parallelHashedRunsCountTheSame() {
+        ClassicBitboardBoard root = new ClassicBitboardBoard();
+        try (Perft perft = new Perft(ClassicBitboardBoard::new, 4, 16L << 20)) {
+            Perft.Result result = perft.run(root, 8);
+            assertEquals(POSITIONS[8], result.getPositions());
+            assertEquals(WINS[8], result.getWins());
+            assertTrue("transpositions were cut", result.getMoves() < 6634026);
+
+            // a table filled by the previous run must still give exact counts
+            Perft.Result again = perft.run(root, 7);
+            assertEquals(POSITIONS[7], again.getPositions());
+            assertEquals(WINS[7], again.getWins());
+        }
+        assertEquals(0, root.getMoveCount());
+
+        ClassicBitboardBoard opening = openingOn(new ClassicBitboardBoard());
+        Perft.Result sequential = Perft.count(opening, 6);
+        try (Perft perft = new Perft(() -> new BitboardBoard(6, 7), 3)) {
+            Perft.Result parallel = perft.run(openingOn(new BitboardBoard(6, 7)), 6);
+            assertEquals(sequential.getPositions(), parallel.getPositions());
+            assertEquals(sequential.getWins(), parallel.getWins());
+            assertEquals(sequential.getMoves(), parallel.getMoves());
+        }
+    }
+
+    @Test
+    public void sideToMoveComesFromTheRoot() {
+        ConnectFourBoard xFirst = new NaiveBoard(6, 7);
+        xFirst.dropDisc(3, 'X');
+        Perft.Result expected = Perft.count(xFirst, 6);
+        assertTrue("wins within reach", expected.getWins() > 0);
+
+        // 'O' moved first, so 'X' is to move: the same counts with the colours swapped
+        ConnectFourBoard oFirst = new NaiveBoard(6, 7);
+        oFirst.dropDisc(3, 'O');
+        Perft.Result swapped = Perft.count(oFirst, 6);
+        assertEquals(expected.getPositions(), swapped.getPositions());
+        assertEquals(expected.getWins(), swapped.getWins());
+
+        ClassicBitboardBoard custom = new ClassicBitboardBoard('R', 'Y');
+        custom.dropDisc(3, 'R');
+        Perft.Result symbols = Perft.count(custom, 6);
+        assertEquals(expected.getPositions(), symbols.getPositions());
+        assertEquals(expected.getWins(), symbols.getWins());
+
+        try (Perft perft = new Perft(() -> new BitboardBoard(6, 7), 3, 1L << 20)) {
+            ConnectFourBoard root = new BitboardBoard(6, 7);
+            root.dropDisc(3, 'O');
+            Perft.Result parallel = perft.run(root, 6);
+            assertEquals(expected.getPositions(), parallel.getPositions());
+            assertEquals(expected.getWins(), parallel.getWins());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsWonRoot() {
+        ConnectFourBoard board = new BitboardBoard(6, 7);
+        for (int i = 0; i < 4; i++) {
+            board.dropDisc(0, 'X');
+        }
+        Perft.count(board, 1);
+    }
+
+    /** Nine discs with threats on both sides, so wins show up within a few plies. */
+    private static void playOpening(ConnectFourBoard board) {
+        int[] moves = {3, 3, 2, 4, 4, 2, 1, 5, 3};
+        for (int i = 0; i < moves.length; i++) {
+            board.dropDisc(moves[i], i % 2 == 0 ? 'X' : 'O');
+        }
+    }
+
+    private static <B extends ConnectFourBoard> B openingOn(B board) {
+        playOpening(board);
+        return board;
+    }
+}
@@ -0,0 +1,69 @@
+import java.util.Arrays;
+
+/**
+ * Maps player symbols to small dense ids 0..n-1, in order of first use.
+ *
+ * Per-player state (bitboards, key tables, cell codes) lives in plain arrays
+ * indexed by id, so once a symbol is registered, turning it into an id is an
+ * array read for ASCII symbols and a short scan otherwise. No boxing, no
+ * hashing and no allocation.
+ */
+public final class PlayerRegistry {
+
+    /** Most players one board can hold; ids must fit a cell byte next to the empty code. */
+    public static final int MAX_PLAYERS = 255;
+
+    // asciiIds[symbol] = id + 1, 0 if not registered
+    private final short[] asciiIds = new short[128];
+    private char[] symbols = new char[4];
+    private int size;
+
+    /** Id of the symbol, registering it on first use. */
+    public int idOf(char symbol) {
+        int id = find(symbol);
+        return id >= 0 ? id : register(symbol);
+    }
+
+    /** Id of the symbol, or -1 if it was never registered. */
+    public int find(char symbol) {
+        if (symbol < 128) {
+            return asciiIds[symbol] - 1;
+        }
+        for (int id = 0; id < size; id++) {
+            if (symbols[id] == symbol) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    public char symbolOf(int id) {
+        if (id < 0 || id >= size) {
+            throw new IllegalArgumentException("Unknown player id: " + id);
+        }
+        return symbols[id];
+    }
+
+    /** Number of registered players. */
+    public int size() {
+        return size;
+    }
+
+    private int register(char symbol) {
+        if (symbol == ' ') {
+            throw new IllegalArgumentException("Symbol cannot be space");
+        }
+        if (size == MAX_PLAYERS) {
+            throw new IllegalStateException("more than " + MAX_PLAYERS + " players on one board");
+        }
+        if (size == symbols.length) {
+            symbols = Arrays.copyOf(symbols, size * 2);
+        }
+        int id = size++;
+        symbols[id] = symbol;
+        if (symbol < 128) {
+            asciiIds[symbol] = (short) (id + 1);
+        }
+        return id;
+    }
+}
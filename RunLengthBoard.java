@@ -0,0 +1,111 @@
+import java.util.Arrays;
+
+/**
+ * Board that keeps, for every cell and each of the four line directions,
+ * the length of the same-symbol run the cell belongs to, so a win check
+ * only reads the four lengths stored for the last disc.
+ *
+ * Lengths are exact for the cells at both ends of a run and for the disc
+ * that was dropped last; interior cells may be stale, which is fine because
+ * a new disc can only touch a run at its ends. dropDisc merges the runs
+ * ending next to the new disc and writes the merged length to the new disc
+ * and the two far ends. Overwritten values go into a journal, so undoMove
+ * restores them exactly.
+ *
+ * Costs 16 bytes per cell plus 64 bytes of journal per move.
+ */
+public class RunLengthBoard extends ConnectFourBoard {
+
+    // Line directions (dr, dc): horizontal, vertical, diagonal, anti-diagonal
+    private static final int[] DR = {0, 1, 1, -1};
+    private static final int[] DC = {1, 0, 1, 1};
+    private static final int DIRECTIONS = 4;
+    // Every move journals two (index, old value) endpoint pairs per direction
+    private static final int JOURNAL_PER_MOVE = DIRECTIONS * 2 * 2;
+
+    // runs[(row * columns + col) * 4 + direction]
+    private final int[] runs;
+    private int[] journal;
+    private int journalSize;
+
+    public RunLengthBoard(int rows, int columns) {
+        this(rows, columns, 4);
+    }
+
+    public RunLengthBoard(int rows, int columns, int winLength) {
+        super(rows, columns, winLength);
+        this.runs = new int[rows * columns * DIRECTIONS];
+        this.journal = new int[JOURNAL_PER_MOVE * Math.min(rows * columns, 64)];
+    }
+
+    @Override
+    protected void clear() {
+        super.clear();
+        Arrays.fill(runs, 0);
+        journalSize = 0;
+    }
+
+    @Override
+    protected void onDiscDropped(int row, int col, char symbol) {
+        if (journalSize == journal.length) {
+            journal = Arrays.copyOf(journal, Math.min(journal.length * 2, JOURNAL_PER_MOVE * rows * columns));
+        }
+        int cell = (row * columns + col) * DIRECTIONS;
+        for (int d = 0; d < DIRECTIONS; d++) {
+            int dr = DR[d];
+            int dc = DC[d];
+            int before = runEndingAt(row - dr, col - dc, d, symbol);
+            int after = runEndingAt(row + dr, col + dc, d, symbol);
+            int length = before + 1 + after;
+
+            int first = ((row - before * dr) * columns + (col - before * dc)) * DIRECTIONS + d;
+            int last = ((row + after * dr) * columns + (col + after * dc)) * DIRECTIONS + d;
+            journal[journalSize++] = first;
+            journal[journalSize++] = runs[first];
+            journal[journalSize++] = last;
+            journal[journalSize++] = runs[last];
+
+            runs[first] = length;
+            runs[last] = length;
+            runs[cell + d] = length;
+        }
+    }
+
+    @Override
+    protected void onDiscRemoved(int row, int col, char symbol) {
+        // Restore in reverse order; the new disc's own slots were 0 before it landed
+        for (int i = 0; i < DIRECTIONS * 2; i++) {
+            int old = journal[--journalSize];
+            int index = journal[--journalSize];
+            runs[index] = old;
+        }
+        int cell = (row * columns + col) * DIRECTIONS;
+        for (int d = 0; d < DIRECTIONS; d++) {
+            runs[cell + d] = 0;
+        }
+    }
+
+    /**
+     * Win check by lookup: the four run lengths stored for the last disc.
+     * O(1), reads no grid cells.
+     */
+    @Override
+    public boolean hasConnectFour() {
+        if (lastRow < 0 || lastCol < 0) {
+            return false;
+        }
+        int cell = (lastRow * columns + lastCol) * DIRECTIONS;
+        return runs[cell] >= winLength
+            || runs[cell + 1] >= winLength
+            || runs[cell + 2] >= winLength
+            || runs[cell + 3] >= winLength;
+    }
+
+    /** Length of the symbol's run along direction d that ends on (row, col), or 0 if the cell is not the symbol's. */
+    private int runEndingAt(int row, int col, int d, char symbol) {
+        if (row < 0 || row >= rows || col < 0 || col >= columns || grid.get(row, col) != symbol) {
+            return 0;
+        }
+        return runs[(row * columns + col) * DIRECTIONS + d];
+    }
+}
@@ -0,0 +1,106 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Plays many random games in parallel on a fork-join pool.
+ *
+ * Games are cut into fixed-size chunks and every chunk gets its own
+ * {@link SplittableRandom}, split off a root generator in chunk order before
+ * any work starts. Which thread runs a chunk therefore never changes the
+ * games it plays, and a given seed gives the same totals for any pool size.
+ * Each worker thread plays on its own board from the factory and results
+ * are merged up the fork-join tree.
+ */
+public class SimulationEngine implements AutoCloseable {
+
+    private static final char FIRST = 'X';
+    private static final char SECOND = 'O';
+
+    // Games per task; large enough to amortise task overhead, small enough to balance
+    private static final int CHUNK = 256;
+
+    private final Supplier<? extends ConnectFourBoard> boardFactory;
+    private final ForkJoinPool pool;
+
+    public SimulationEngine(Supplier<? extends ConnectFourBoard> boardFactory, int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+        this.boardFactory = boardFactory;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /** Plays the given number of random games, 'X' moving first. */
+    public SimulationResult run(long games, long seed) {
+        if (games < 0) {
+            throw new IllegalArgumentException("games must not be negative");
+        }
+        int chunks = (int) ((games + CHUNK - 1) / CHUNK);
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] randoms = new SplittableRandom[chunks];
+        for (int i = 0; i < chunks; i++) {
+            randoms[i] = root.split();
+        }
+
+        ThreadLocal<ConnectFourBoard> boards = ThreadLocal.withInitial(boardFactory::get);
+        long start = System.nanoTime();
+        SimulationResult result = pool.invoke(new ChunkTask(boards, randoms, games, 0, chunks));
+        result.setElapsedNanos(System.nanoTime() - start);
+        return result;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /** Plays one random game from an empty board and returns the winner, or ' ' for a draw. */
+    static char playRandomGame(ConnectFourBoard board, SplittableRandom random) {
+        board.reset();
+        return board.playout(random, FIRST, SECOND);
+    }
+
+    private static final class ChunkTask extends RecursiveTask<SimulationResult> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ThreadLocal<ConnectFourBoard> boards;
+        private final SplittableRandom[] randoms;
+        private final long games;
+        private final int from;
+        private final int to;
+
+        ChunkTask(ThreadLocal<ConnectFourBoard> boards, SplittableRandom[] randoms, long games, int from, int to) {
+            this.boards = boards;
+            this.randoms = randoms;
+            this.games = games;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected SimulationResult compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                ChunkTask left = new ChunkTask(boards, randoms, games, from, mid);
+                left.fork();
+                SimulationResult right = new ChunkTask(boards, randoms, games, mid, to).compute();
+                return left.join().merge(right);
+            }
+            SimulationResult result = new SimulationResult(FIRST, SECOND);
+            if (from == to) {
+                return result;
+            }
+            ConnectFourBoard board = boards.get();
+            SplittableRandom random = randoms[from];
+            long end = Math.min(games, (long) (from + 1) * CHUNK);
+            for (long g = (long) from * CHUNK; g < end; g++) {
+                char winner = playRandomGame(board, random);
+                result.record(winner, board.getMoveCount());
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+// SimulationEngineTest.java
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class SimulationEngineTest {
+
+    @Test
+    public void resultsDoNotDependOnThreadCount() {
+        SimulationResult single;
+        SimulationResult parallel;
+        try (SimulationEngine engine = new SimulationEngine(() -> new BitboardBoard(6, 7), 1)) {
+            single = engine.run(3000, 99L);
+        }
+        try (SimulationEngine engine = new SimulationEngine(() -> new BitboardBoard(6, 7), 4)) {
+            parallel = engine.run(3000, 99L);
+        }
+
+        assertEquals(3000, single.getGames());
+        assertEquals(single.getWins('X'), parallel.getWins('X'));
+        assertEquals(single.getWins('O'), parallel.getWins('O'));
+        assertEquals(single.getDraws(), parallel.getDraws());
+        assertArrayEquals(single.getMovesHistogram(), parallel.getMovesHistogram());
+        assertEquals(3000, single.getWins('X') + single.getWins('O') + single.getDraws());
+    }
+
+    @Test
+    public void resultsDoNotDependOnThreadCountWhenResetUndoesMoves() {
+        // Short games on a wide board: reset() takes the moves back one by one
+        SimulationResult single;
+        SimulationResult parallel;
+        try (SimulationEngine engine = new SimulationEngine(() -> new BitboardBoard(2, 1000, 2), 1)) {
+            single = engine.run(20000, 42L);
+        }
+        try (SimulationEngine engine = new SimulationEngine(() -> new BitboardBoard(2, 1000, 2), 4)) {
+            parallel = engine.run(20000, 42L);
+        }
+
+        assertEquals(single.getWins('X'), parallel.getWins('X'));
+        assertEquals(single.getWins('O'), parallel.getWins('O'));
+        assertEquals(single.getDraws(), parallel.getDraws());
+        assertArrayEquals(single.getMovesHistogram(), parallel.getMovesHistogram());
+    }
+
+    @Test
+    public void implementationsAgreeOnSameGames() {
+        try (SimulationEngine naive = new SimulationEngine(() -> new NaiveBoard(6, 7), 2);
+             SimulationEngine classic = new SimulationEngine(ClassicBitboardBoard::new, 3)) {
+            SimulationResult a = naive.run(1000, 5L);
+            SimulationResult b = classic.run(1000, 5L);
+            assertEquals(a.getWins('X'), b.getWins('X'));
+            assertEquals(a.getTotalMoves(), b.getTotalMoves());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+import java.util.Arrays;
+
+/**
+ * Aggregated outcome of a batch of random games. Each worker fills its own
+ * instance and instances are merged pairwise, so no counter is ever shared
+ * between threads.
+ */
+public class SimulationResult {
+
+    private final char firstSymbol;
+    private final char secondSymbol;
+
+    private long games;
+    private long firstWins;
+    private long secondWins;
+    private long draws;
+    private long totalMoves;
+    // movesHistogram[n] = games that ended after n discs; grown as longer games show up
+    private long[] movesHistogram = new long[0];
+    private long elapsedNanos;
+
+    SimulationResult(char firstSymbol, char secondSymbol) {
+        this.firstSymbol = firstSymbol;
+        this.secondSymbol = secondSymbol;
+    }
+
+    /** Records one finished game; winner is ' ' for a draw. */
+    void record(char winner, int moves) {
+        games++;
+        totalMoves += moves;
+        if (winner == firstSymbol) {
+            firstWins++;
+        } else if (winner == secondSymbol) {
+            secondWins++;
+        } else {
+            draws++;
+        }
+        if (moves >= movesHistogram.length) {
+            movesHistogram = Arrays.copyOf(movesHistogram, Math.max(moves + 1, movesHistogram.length * 2));
+        }
+        movesHistogram[moves]++;
+    }
+
+    /** Adds the counts of other into this result and returns this. */
+    SimulationResult merge(SimulationResult other) {
+        games += other.games;
+        firstWins += other.firstWins;
+        secondWins += other.secondWins;
+        draws += other.draws;
+        totalMoves += other.totalMoves;
+        if (other.movesHistogram.length > movesHistogram.length) {
+            movesHistogram = Arrays.copyOf(movesHistogram, other.movesHistogram.length);
+        }
+        for (int i = 0; i < other.movesHistogram.length; i++) {
+            movesHistogram[i] += other.movesHistogram[i];
+        }
+        return this;
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    /** Games won by the given symbol. */
+    public long getWins(char symbol) {
+        if (symbol == firstSymbol) return firstWins;
+        if (symbol == secondSymbol) return secondWins;
+        return 0;
+    }
+
+    public long getDraws() {
+        return draws;
+    }
+
+    public long getTotalMoves() {
+        return totalMoves;
+    }
+
+    /** Number of games that ended after exactly the given number of discs. */
+    public long getGamesWithMoves(int moves) {
+        return moves < movesHistogram.length ? movesHistogram[moves] : 0;
+    }
+
+    /** Copy of the move-count histogram, index = discs played. */
+    public long[] getMovesHistogram() {
+        return movesHistogram.clone();
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : games * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d games: %c %d, %c %d, draws %d, avg %.1f moves, %.0f games/s",
+                games, firstSymbol, firstWins, secondSymbol, secondWins, draws,
+                games == 0 ? 0.0 : (double) totalMoves / games, getGamesPerSecond());
+    }
+}
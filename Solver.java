@@ -0,0 +1,386 @@
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Exact solver for positions on a {@link ClassicBitboardBoard}.
+ *
+ * Negamax with alpha-beta pruning, centre-first move ordering and a
+ * null-window search that narrows the score interval, playing and taking
+ * back moves on the board itself (dropDisc / undoMove). Bounds and best
+ * moves are cached in a {@link TranspositionTable}; the best move found
+ * for a position is tried first when it is searched again.
+ *
+ * Scores are from the point of view of the player to move: 0 is a draw, a
+ * positive score is a win and a negative one a loss. A win with the
+ * winner's k-th disc scores 22 - k, so faster wins score higher.
+ *
+ * A node and/or time budget bounds the latency of a single solve; when it
+ * runs out the result is marked incomplete and carries the bounds proven so far.
+ * With an {@link OpeningBook} attached, positions in the book are answered
+ * from it, both at the root and inside the search.
+ */
+public class Solver {
+
+    private static final int CELLS = ClassicBitboardBoard.ROWS * ClassicBitboardBoard.COLUMNS;
+    private static final int[] COLUMN_ORDER = centreFirstOrder(ClassicBitboardBoard.COLUMNS);
+
+    // How often (in nodes) the clock and the abort flag are read
+    private static final long CLOCK_CHECK_INTERVAL = 1 << 12;
+
+    private static final long DEFAULT_TABLE_BYTES = 16L << 20;
+
+    private final TranspositionTable table;
+    private OpeningBook book;
+    // Move order and first window probe; varied between the workers of a ParallelSolver
+    private final int[] columnOrder;
+    private final boolean probeHighFirst;
+    // Raised by whoever wants a running solve to stop; checked with the clock
+    private AtomicBoolean abort;
+
+    private long nodeLimit = Long.MAX_VALUE;
+    private long timeLimitNanos = Long.MAX_VALUE;
+
+    private ClassicBitboardBoard board;
+    private long nodes;
+    private long deadline;
+    private boolean stopped;
+
+    // Table use by this solver alone, so workers sharing a table never write to a common counter
+    private long tableHits;
+    private long tableMisses;
+    private long tableStores;
+    private long tableCollisions;
+
+    public Solver() {
+        this(new TranspositionTable(DEFAULT_TABLE_BYTES));
+    }
+
+    /** Uses the given table; it may be kept across solves since cached bounds never go stale. */
+    public Solver(TranspositionTable table) {
+        this(table, 0);
+    }
+
+    /**
+     * Solver for helper thread number variant of a parallel search: variant 0
+     * is the plain solver, others swap a pair of columns in the move order
+     * and odd ones start the window narrowing with the winning half.
+     */
+    Solver(TranspositionTable table, int variant) {
+        this.table = table;
+        this.columnOrder = COLUMN_ORDER.clone();
+        if (variant > 0) {
+            int swap = 1 + 2 * ((variant - 1) % 3);   // positions 1/2, 3/4, 5/6: columns 2/4, 1/5, 0/6
+            int column = columnOrder[swap];
+            columnOrder[swap] = columnOrder[swap + 1];
+            columnOrder[swap + 1] = column;
+        }
+        this.probeHighFirst = variant % 2 == 1;
+    }
+
+    /** Shares a stop signal with other solvers; a solve returns incomplete soon after it is raised. */
+    void setAbortFlag(AtomicBoolean abort) {
+        this.abort = abort;
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /** Table probes of this solver that found their position, over all its solves. */
+    public long getTableHits() {
+        return tableHits;
+    }
+
+    public long getTableMisses() {
+        return tableMisses;
+    }
+
+    public long getTableStores() {
+        return tableStores;
+    }
+
+    /** Stores of this solver that had to evict an entry for a different position. */
+    public long getTableCollisions() {
+        return tableCollisions;
+    }
+
+    /** Zeroes the table counters; the table itself is kept. */
+    public void resetTableCounters() {
+        tableHits = 0;
+        tableMisses = 0;
+        tableStores = 0;
+        tableCollisions = 0;
+    }
+
+    /** Answers book positions from the book; null to search everything. */
+    public void setOpeningBook(OpeningBook book) {
+        this.book = book;
+    }
+
+    /** Stops a solve after roughly this many nodes. */
+    public void setNodeLimit(long nodeLimit) {
+        if (nodeLimit <= 0) {
+            throw new IllegalArgumentException("nodeLimit must be positive");
+        }
+        this.nodeLimit = nodeLimit;
+    }
+
+    /** Stops a solve after roughly this many milliseconds. */
+    public void setTimeLimitMillis(long millis) {
+        if (millis <= 0) {
+            throw new IllegalArgumentException("time limit must be positive");
+        }
+        this.timeLimitNanos = millis * 1_000_000L;
+    }
+
+    /**
+     * Solves the position for the player to move. The board is left exactly
+     * as it was passed in.
+     * @throws IllegalArgumentException if the position is already won or full
+     */
+    public Result solve(ClassicBitboardBoard board) {
+        if (board.getWinLength() != 4) {
+            throw new IllegalArgumentException("solver scores connect-four only");
+        }
+        if (board.hasConnectFour() || board.isFull()) {
+            throw new IllegalArgumentException("position is already decided");
+        }
+        this.board = board;
+        this.nodes = 0;
+        this.stopped = false;
+        long start = System.nanoTime();
+        this.deadline = timeLimitNanos == Long.MAX_VALUE ? Long.MAX_VALUE : start + timeLimitNanos;
+
+        if (book != null) {
+            int data = book.probe(board);
+            if (data != OpeningBook.MISS) {
+                int score = OpeningBook.score(data);
+                this.board = null;
+                return new Result(score, score, OpeningBook.move(data), 0, System.nanoTime() - start, true);
+            }
+        }
+
+        int moves = board.getMoveCount();
+        int min = -(CELLS - moves) / 2;
+        int max = (CELLS + 1 - moves) / 2;
+
+        // Narrow [min, max] with null-window searches, probing near 0 first
+        boolean firstProbe = true;
+        while (min < max && !stopped) {
+            int med = min + (max - min) / 2;
+            if (firstProbe && probeHighFirst && max / 2 > med) {
+                med = max / 2;
+            } else if (med <= 0 && min / 2 < med) {
+                med = min / 2;
+            } else if (med >= 0 && max / 2 > med) {
+                med = max / 2;
+            }
+            firstProbe = false;
+            int r = negamax(med, med + 1);
+            if (stopped) {
+                break;
+            }
+            if (r <= med) {
+                max = r;
+            } else {
+                min = r;
+            }
+        }
+
+        // The score is settled here; running out while looking for its move only loses the move
+        boolean complete = !stopped;
+        int bestMove = complete ? bestMove(min) : -1;
+        long elapsed = System.nanoTime() - start;
+        this.board = null;
+        return new Result(min, max, bestMove, nodes, elapsed, complete);
+    }
+
+    /** Finds a column that achieves the given (already proven) score, or -1 if the budget runs out first. */
+    private int bestMove(int score) {
+        for (int column : columnOrder) {
+            if (board.isWinningMove(column)) {
+                return column;
+            }
+        }
+        for (int column : columnOrder) {
+            if (!board.isColumnPlayable(column)) {
+                continue;
+            }
+            board.dropDisc(column, board.getSymbolToMove());
+            // The child is scored for the opponent: the move achieves score iff child <= -score
+            int child = board.isFull() ? 0 : negamax(-score, -score + 1);
+            board.undoMove();
+            if (stopped) {
+                return -1;
+            }
+            if (-child >= score) {
+                return column;
+            }
+        }
+        return -1;
+    }
+
+    private int negamax(int alpha, int beta) {
+        nodes++;
+        if (nodes >= nodeLimit
+                || ((nodes & (CLOCK_CHECK_INTERVAL - 1)) == 0
+                    && (System.nanoTime() > deadline || (abort != null && abort.get())))) {
+            stopped = true;
+        }
+        if (stopped) {
+            return alpha;
+        }
+
+        int moves = board.getMoveCount();
+        if (moves == CELLS) {
+            return 0;
+        }
+        for (int column = 0; column < ClassicBitboardBoard.COLUMNS; column++) {
+            if (board.isWinningMove(column)) {
+                return (CELLS + 1 - moves) / 2;
+            }
+        }
+
+        // We cannot win next move, so the best we can hope for is one move later
+        int max = (CELLS - 1 - moves) / 2;
+        if (beta > max) {
+            beta = max;
+            if (alpha >= beta) {
+                return beta;
+            }
+        }
+
+        long key = board.positionKey();
+        if (book != null && moves <= book.getDepth()) {
+            int data = book.probe(key);
+            if (data != OpeningBook.MISS) {
+                return OpeningBook.score(data);
+            }
+        }
+        int hashMove = TranspositionTable.NO_MOVE;
+        int cached = table.probe(key);
+        if (cached == TranspositionTable.MISS) {
+            tableMisses++;
+        } else {
+            tableHits++;
+            int type = TranspositionTable.type(cached);
+            int value = TranspositionTable.score(cached);
+            if (type == TranspositionTable.EXACT) {
+                return value;
+            }
+            if (type == TranspositionTable.UPPER && value < beta) {
+                beta = value;
+            } else if (type == TranspositionTable.LOWER && value > alpha) {
+                alpha = value;
+            }
+            if (alpha >= beta) {
+                return alpha;
+            }
+            hashMove = TranspositionTable.move(cached);
+        }
+
+        long nodesBefore = nodes;
+        int alphaBefore = alpha;
+        int bestMove = TranspositionTable.NO_MOVE;
+        char symbol = board.getSymbolToMove();
+        for (int i = -1; i < columnOrder.length; i++) {
+            // Hash move first, then centre-first order without it
+            int column = i < 0 ? hashMove : columnOrder[i];
+            if (column == TranspositionTable.NO_MOVE || (i >= 0 && column == hashMove)
+                    || !board.isColumnPlayable(column)) {
+                continue;
+            }
+            board.dropDisc(column, symbol);
+            int score = -negamax(-beta, -alpha);
+            board.undoMove();
+            if (stopped) {
+                return alpha;
+            }
+            if (score >= beta) {
+                store(key, TranspositionTable.LOWER, score, column, nodes - nodesBefore);
+                return score;
+            }
+            if (score > alpha) {
+                alpha = score;
+                bestMove = column;
+            }
+        }
+        int type = alpha > alphaBefore ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        store(key, type, alpha, bestMove, nodes - nodesBefore);
+        return alpha;
+    }
+
+    private void store(long key, int type, int score, int move, long searched) {
+        if (table.store(key, type, score, move, searched)) {
+            tableCollisions++;
+        }
+        tableStores++;
+    }
+
+    private static int[] centreFirstOrder(int columns) {
+        int[] order = new int[columns];
+        for (int i = 0; i < columns; i++) {
+            // 3, 2, 4, 1, 5, 0, 6 for seven columns
+            order[i] = columns / 2 + (1 - 2 * (i % 2)) * (i + 1) / 2;
+        }
+        return order;
+    }
+
+    /** Outcome of a single solve. */
+    public static final class Result {
+
+        private final int lowerBound;
+        private final int upperBound;
+        private final int bestMove;
+        private final long nodes;
+        private final long elapsedNanos;
+        private final boolean complete;
+
+        Result(int lowerBound, int upperBound, int bestMove, long nodes, long elapsedNanos, boolean complete) {
+            this.lowerBound = lowerBound;
+            this.upperBound = upperBound;
+            this.bestMove = bestMove;
+            this.nodes = nodes;
+            this.elapsedNanos = elapsedNanos;
+            this.complete = complete;
+        }
+
+        /** Exact score when complete, otherwise the proven lower bound. */
+        public int getScore() {
+            return lowerBound;
+        }
+
+        public int getLowerBound() {
+            return lowerBound;
+        }
+
+        public int getUpperBound() {
+            return upperBound;
+        }
+
+        /** Column achieving the score, or -1 if the budget ran out first. */
+        public int getBestMove() {
+            return bestMove;
+        }
+
+        public long getNodes() {
+            return nodes;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getNodesPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : nodes * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * False if the node or time budget stopped the search before the score
+         * was exact. A complete result can still lack its best move when the
+         * budget ran out while looking for it.
+         */
+        public boolean isComplete() {
+            return complete;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+// SolverTest.java
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class SolverTest {
+
+    private static final int CELLS = ClassicBitboardBoard.ROWS * ClassicBitboardBoard.COLUMNS;
+
+    @Test
+    public void immediateWinIsFoundAndScored() {
+        ClassicBitboardBoard board = new ClassicBitboardBoard();
+        // X: 0, 1, 2 on the bottom row; O stacks on top
+        board.dropDisc(0, 'X');
+        board.dropDisc(0, 'O');
+        board.dropDisc(1, 'X');
+        board.dropDisc(1, 'O');
+        board.dropDisc(2, 'X');
+        board.dropDisc(2, 'O');
+
+        Solver.Result result = new Solver().solve(board);
+
+        assertTrue(result.isComplete());
+        assertEquals("win with the fourth disc", (CELLS + 1 - 6) / 2, result.getScore());
+        assertEquals(3, result.getBestMove());
+        assertEquals("board restored after solve", 6, board.getMoveCount());
+    }
+
+    @Test
+    public void endgameScoresMatchPlainMinimax() {
+        Random random = new Random(3);
+        for (int i = 0; i < 6; i++) {
+            ClassicBitboardBoard board = randomPosition(random, CELLS - 10);
+            int expected = minimax(board);
+
+            Solver.Result result = new Solver().solve(board);
+
+            assertTrue(result.isComplete());
+            assertEquals("exact score", expected, result.getScore());
+
+            // Playing the reported best move must keep the score
+            board.dropDisc(result.getBestMove(), board.getSymbolToMove());
+            int after = board.hasConnectFour() ? (CELLS + 2 - board.getMoveCount()) / 2
+                                               : board.isFull() ? 0 : -minimax(board);
+            assertEquals("best move achieves score", expected, after);
+        }
+    }
+
+    @Test
+    public void nodeBudgetStopsSearch() {
+        Solver solver = new Solver();
+        solver.setNodeLimit(1000);
+
+        ClassicBitboardBoard board = new ClassicBitboardBoard();
+        Solver.Result result = solver.solve(board);
+
+        assertFalse(result.isComplete());
+        assertEquals(-1, result.getBestMove());
+        assertEquals("board restored after aborted solve", 0, board.getMoveCount());
+        assertTrue(result.getNodes() <= 1000);
+    }
+
+    @Test
+    public void budgetRunningOutOnTheMoveKeepsTheScore() {
+        Random random = new Random(11);
+        int checked = 0;
+        for (int i = 0; i < 20; i++) {
+            ClassicBitboardBoard board = randomPosition(random, CELLS - 12);
+            Solver.Result full = new Solver().solve(board);
+
+            // The same search again, stopped at its very last node
+            Solver solver = new Solver();
+            solver.setNodeLimit(full.getNodes());
+            Solver.Result result = solver.solve(board);
+
+            if (result.isComplete()) {
+                // that last node was spent looking for the move, after the score was exact
+                assertEquals(full.getScore(), result.getScore());
+                assertEquals(-1, result.getBestMove());
+                checked++;
+            }
+        }
+        assertTrue("some positions needed a search to find the move", checked > 0);
+    }
+
+    @Test
+    public void mirroredPositionsShareTableEntry() {
+        ClassicBitboardBoard left = new ClassicBitboardBoard();
+        left.dropDisc(0, 'X');
+        left.dropDisc(1, 'O');
+        ClassicBitboardBoard right = new ClassicBitboardBoard();
+        right.dropDisc(6, 'X');
+        right.dropDisc(5, 'O');
+
+        TranspositionTable table = new TranspositionTable(1 << 10);
+        assertFalse("empty slot", table.store(left.positionKey(), TranspositionTable.LOWER, 5, 2, 100));
+
+        int data = table.probe(right.positionKey());
+        assertNotEquals(TranspositionTable.MISS, data);
+        assertEquals(TranspositionTable.LOWER, TranspositionTable.type(data));
+        assertEquals(5, TranspositionTable.score(data));
+        assertEquals("best move mirrored", 4, TranspositionTable.move(data));
+        assertEquals(TranspositionTable.MISS, table.probe(new ClassicBitboardBoard().positionKey()));
+    }
+
+    @Test
+    public void solverCountsItsOwnTableUse() {
+        Solver solver = new Solver(new TranspositionTable(1 << 10));
+        ClassicBitboardBoard board = new ClassicBitboardBoard();
+        for (int column : new int[] {1, 0, 6, 0, 1, 6, 1, 1, 6, 1, 2, 2, 1, 5, 6, 6, 0, 0, 5, 5}) {
+            board.dropDisc(column, board.getSymbolToMove());
+        }
+        // 128 entries for a search of a few hundred thousand nodes, so stores collide
+        Solver.Result result = solver.solve(board);
+        assertTrue(result.isComplete());
+        assertTrue(solver.getTableStores() > 0);
+        assertTrue(solver.getTableCollisions() > 0);
+        assertTrue("every store follows a probe",
+                   solver.getTableHits() + solver.getTableMisses() >= solver.getTableStores());
+
+        solver.resetTableCounters();
+        assertEquals(0, solver.getTableHits() + solver.getTableMisses() + solver.getTableStores()
+                        + solver.getTableCollisions());
+    }
+
+    @Test
+    public void tinyTableEvictsLeastWork() {
+        TranspositionTable table = new TranspositionTable(4 * Long.BYTES);
+        assertEquals(4, table.getCapacity());
+        for (long key = 1; key <= 4; key++) {
+            assertFalse(table.store(key << 8 | 1, TranspositionTable.EXACT, 0, TranspositionTable.NO_MOVE, key == 2 ? 1 : 1 << 10));
+        }
+        assertTrue("full bucket evicts", table.store(5L << 8 | 1, TranspositionTable.EXACT, 1, 3, 1 << 10));
+        assertFalse("same key overwrites", table.store(5L << 8 | 1, TranspositionTable.EXACT, 1, 3, 1 << 10));
+        assertEquals(TranspositionTable.MISS, table.probe(2L << 8 | 1));
+        assertEquals(1, TranspositionTable.score(table.probe(5L << 8 | 1)));
+    }
+
+    /** Random alternating game without a win, stopped after the given number of discs. */
+    private ClassicBitboardBoard randomPosition(Random random, int discs) {
+        ClassicBitboardBoard board = new ClassicBitboardBoard();
+        while (board.getMoveCount() < discs) {
+            int column = random.nextInt(ClassicBitboardBoard.COLUMNS);
+            if (!board.isColumnPlayable(column)) {
+                continue;
+            }
+            board.dropDisc(column, board.getSymbolToMove());
+            if (board.hasConnectFour()) {
+                board.undoMove();
+                if (allMovesWin(board)) {
+                    board.reset();
+                }
+            }
+        }
+        return board;
+    }
+
+    private boolean allMovesWin(ClassicBitboardBoard board) {
+        for (int c = 0; c < ClassicBitboardBoard.COLUMNS; c++) {
+            if (board.isColumnPlayable(c) && !board.isWinningMove(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Unpruned negamax with the solver's scoring, as a reference. */
+    private int minimax(ClassicBitboardBoard board) {
+        int best = Integer.MIN_VALUE;
+        for (int c = 0; c < ClassicBitboardBoard.COLUMNS; c++) {
+            if (!board.isColumnPlayable(c)) {
+                continue;
+            }
+            int score;
+            board.dropDisc(c, board.getSymbolToMove());
+            if (board.hasConnectFour()) {
+                score = (CELLS + 2 - board.getMoveCount()) / 2;
+            } else if (board.isFull()) {
+                score = 0;
+            } else {
+                score = -minimax(board);
+            }
+            board.undoMove();
+            best = Math.max(best, score);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,32 @@
+/**
+ * Board for very large grids (say 100,000 x 100,000) holding only a few
+ * thousand discs.
+ *
+ * Cells live in a {@link ChunkedCellStorage}, so memory and per-move cost
+ * follow the discs played, not the area; only the per-column height arrays
+ * are proportional to the width. Zobrist keys are computed per move instead
+ * of being looked up in a dense key table, and reset() takes the
+ * game back move by move. Win detection is the last-move check of
+ * {@link OptimizedBoard}; it walks through the storage and so crosses tile
+ * boundaries transparently.
+ */
+public class SparseBoard extends OptimizedBoard {
+
+    public SparseBoard(int rows, int columns) {
+        this(rows, columns, 4);
+    }
+
+    public SparseBoard(int rows, int columns, int winLength) {
+        super(rows, columns, winLength, new ChunkedCellStorage());
+    }
+
+    @Override
+    protected long zobristKey(int row, int col, char symbol) {
+        return ZobristKeys.compute(rows, columns, row, col, symbol);
+    }
+
+    /** Tiles currently allocated by the storage; grows with discs played, not with board area. */
+    public int getTileCount() {
+        return ((ChunkedCellStorage) getStorage()).getTileCount();
+    }
+}
@@ -0,0 +1,164 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Fixed-size transposition table for 7x6 positions, keyed by
+ * {@link ClassicBitboardBoard#positionKey()}.
+ *
+ * Every entry is a single {@code long} in one flat array, so the table costs
+ * exactly its configured size and never allocates after construction:
+ *
+ *   bits 63..15  position key (49 bits, stored in full so a hit is never a false positive)
+ *   bits 14..11  work: log2 of the nodes searched below the entry, for replacement
+ *   bits 10..9   bound type (LOWER, UPPER or EXACT; 0 marks an empty slot)
+ *   bits  8..3   score + 32
+ *   bits  2..0   best move column, 7 if none
+ *
+ * Entries live in buckets of four slots found by open addressing. A store
+ * overwrites the same key, else fills an empty slot, else evicts the slot
+ * with the least work behind it. Left-right mirrored positions share an
+ * entry: keys are reduced to the smaller of the key and its mirror, and
+ * best moves are flipped on the way in and out.
+ *
+ * The table may be shared by searches on several threads without locks.
+ * Entries are read and written whole with opaque (atomic, unfenced)
+ * accesses, and each entry carries its full key next to its data, so a
+ * reader never sees half of one store or another position's data. Racing
+ * stores to one bucket can lose an entry, which only costs a re-search.
+ * The table keeps no counters, so sharing it writes nothing but entries;
+ * each {@link Solver} counts its own hits, misses and stores.
+ */
+public class TranspositionTable {
+
+    public static final int LOWER = 1;
+    public static final int UPPER = 2;
+    public static final int EXACT = 3;
+
+    /** Returned by {@link #probe(long)} when the position is not in the table. */
+    public static final int MISS = 0;
+
+    public static final int NO_MOVE = 7;
+
+    private static final int BUCKET = 4;
+    private static final int KEY_SHIFT = 15;
+    private static final long DATA_MASK = (1L << KEY_SHIFT) - 1;
+    private static final int MAX_WORK = 15;
+
+    private static final VarHandle ENTRY = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final long[] entries;
+    private final int indexMask;
+
+    /**
+     * @param bytes memory budget; rounded down to a power-of-two number of
+     *              8-byte entries (at least one bucket, at most 2^30 entries = 8 GB)
+     */
+    public TranspositionTable(long bytes) {
+        long slots = Math.max(BUCKET, Long.highestOneBit(Math.max(bytes / Long.BYTES, 1)));
+        if (slots > (1L << 30)) {
+            throw new IllegalArgumentException("table larger than 8 GB: " + bytes + " bytes");
+        }
+        this.entries = new long[(int) slots];
+        this.indexMask = (int) slots - BUCKET;
+    }
+
+    /**
+     * Looks up a position.
+     * @return packed data for {@link #type}, {@link #score} and {@link #move}, or {@link #MISS}
+     */
+    public int probe(long key) {
+        long mirror = ClassicBitboardBoard.mirrorKey(key);
+        boolean flipped = mirror < key;
+        long canonical = flipped ? mirror : key;
+
+        int base = bucket(canonical);
+        for (int i = 0; i < BUCKET; i++) {
+            long entry = (long) ENTRY.getOpaque(entries, base + i);
+            if (entry >>> KEY_SHIFT == canonical) {
+                int data = (int) (entry & DATA_MASK);
+                return flipped ? flipMove(data) : data;
+            }
+        }
+        return MISS;
+    }
+
+    /**
+     * Records a search result.
+     * @param type  LOWER, UPPER or EXACT
+     * @param score score from the point of view of the player to move
+     * @param move  best or refuting column, or {@link #NO_MOVE}
+     * @param nodes nodes searched to get the result, used to decide what to evict
+     * @return true if an entry for a different position was evicted
+     */
+    public boolean store(long key, int type, int score, int move, long nodes) {
+        long mirror = ClassicBitboardBoard.mirrorKey(key);
+        long canonical = key;
+        if (mirror < key) {
+            canonical = mirror;
+            move = move == NO_MOVE ? NO_MOVE : ClassicBitboardBoard.COLUMNS - 1 - move;
+        }
+        int work = Math.min(MAX_WORK, 63 - Long.numberOfLeadingZeros(Math.max(nodes, 1)));
+        long entry = canonical << KEY_SHIFT
+                | (long) work << 11
+                | (long) type << 9
+                | (long) (score + 32) << 3
+                | move;
+
+        int base = bucket(canonical);
+        int victim = base;
+        int victimWork = Integer.MAX_VALUE;
+        for (int i = 0; i < BUCKET; i++) {
+            long existing = (long) ENTRY.getOpaque(entries, base + i);
+            if (existing == 0L || existing >>> KEY_SHIFT == canonical) {
+                victim = base + i;
+                victimWork = -1;
+                break;
+            }
+            int existingWork = (int) (existing >>> 11) & MAX_WORK;
+            if (existingWork < victimWork) {
+                victim = base + i;
+                victimWork = existingWork;
+            }
+        }
+        ENTRY.setOpaque(entries, victim, entry);
+        return victimWork >= 0;
+    }
+
+    public static int type(int data) {
+        return (data >>> 9) & 3;
+    }
+
+    public static int score(int data) {
+        return ((data >>> 3) & 63) - 32;
+    }
+
+    public static int move(int data) {
+        return data & 7;
+    }
+
+    public void clear() {
+        Arrays.fill(entries, 0L);
+    }
+
+    public long getCapacity() {
+        return entries.length;
+    }
+
+    public long getSizeBytes() {
+        return (long) entries.length * Long.BYTES;
+    }
+
+    private int bucket(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & indexMask;
+    }
+
+    private static int flipMove(int data) {
+        int move = data & 7;
+        if (move == NO_MOVE) {
+            return data;
+        }
+        return (data & ~7) | (ClassicBitboardBoard.COLUMNS - 1 - move);
+    }
+}
@@ -0,0 +1,13 @@
+/**
+ * Boards that can judge a whole position without relying on the last move,
+ * e.g. after it was built by hand or loaded from storage.
+ */
+public interface WinLineFinder {
+
+    /**
+     * Scans the whole board for {@link ConnectFourBoard#getWinLength()} discs
+     * of one player in a line.
+     * @return one such line, or null if there is none
+     */
+    WinningLine findAnyConnectFour();
+}
@@ -0,0 +1,59 @@
+/**
+ * A line of same-symbol discs found on a board: the winner, the first cell
+ * and the step from one cell of the line to the next. Rows count from the
+ * top, as everywhere in the board API.
+ */
+public final class WinningLine {
+
+    private final char winner;
+    private final int startRow;
+    private final int startCol;
+    private final int rowStep;
+    private final int colStep;
+    private final int length;
+
+    public WinningLine(char winner, int startRow, int startCol, int rowStep, int colStep, int length) {
+        if (Math.abs(rowStep) > 1 || colStep < 0 || colStep > 1 || (rowStep == 0 && colStep == 0)) {
+            throw new IllegalArgumentException("step must point to a neighbouring cell: " + rowStep + ", " + colStep);
+        }
+        this.winner = winner;
+        this.startRow = startRow;
+        this.startCol = startCol;
+        this.rowStep = rowStep;
+        this.colStep = colStep;
+        this.length = length;
+    }
+
+    public char getWinner() {
+        return winner;
+    }
+
+    /** Number of cells in the line, the board's win length. */
+    public int getLength() {
+        return length;
+    }
+
+    /** Row of the i-th cell of the line, 0 <= i < length. */
+    public int getRow(int i) {
+        return startRow + i * rowStep;
+    }
+
+    /** Column of the i-th cell of the line, 0 <= i < length. */
+    public int getColumn(int i) {
+        return startCol + i * colStep;
+    }
+
+    public int getRowStep() {
+        return rowStep;
+    }
+
+    public int getColumnStep() {
+        return colStep;
+    }
+
+    @Override
+    public String toString() {
+        return "'" + winner + "' from (" + getRow(0) + ", " + getColumn(0) + ") to ("
+               + getRow(length - 1) + ", " + getColumn(length - 1) + ")";
+    }
+}
@@ -0,0 +1,72 @@
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Random 64-bit keys for Zobrist hashing, one per (cell, symbol) plus one
+ * for the side to move.
+ *
+ * Every key is a fixed pseudo-random function of (rows, columns, symbol,
+ * row, col), so hashes are stable across runs and across implementations.
+ * Dense boards memoise the keys in tables that are shared by every board of
+ * the same size and created lazily the first time a symbol is played; boards
+ * too large for a table call {@link #compute} directly.
+ */
+final class ZobristKeys {
+
+    /** XORed into the hash on every move, so it also encodes whose turn it is. */
+    static final long SIDE_TO_MOVE = 0x6C8E9CF570932BD5L;
+
+    private static final ConcurrentHashMap<Long, ZobristKeys> BY_SIZE = new ConcurrentHashMap<>();
+
+    private final int rows;
+    private final int columns;
+    // Fast path for ASCII symbols; other symbols go through the map
+    private final AtomicReferenceArray<long[]> ascii = new AtomicReferenceArray<>(128);
+    private final ConcurrentHashMap<Character, long[]> other = new ConcurrentHashMap<>();
+
+    private ZobristKeys(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    static ZobristKeys forSize(int rows, int columns) {
+        return BY_SIZE.computeIfAbsent(((long) rows << 32) | columns, k -> new ZobristKeys(rows, columns));
+    }
+
+    /** Keys of every cell for the symbol, indexed col * rows + row. Shared; do not modify. */
+    long[] table(char symbol) {
+        if (symbol < 128) {
+            long[] keys = ascii.get(symbol);
+            if (keys == null) {
+                keys = generate(symbol);
+                if (!ascii.compareAndSet(symbol, null, keys)) {
+                    keys = ascii.get(symbol);
+                }
+            }
+            return keys;
+        }
+        return other.computeIfAbsent(symbol, this::generate);
+    }
+
+    private long[] generate(char symbol) {
+        long[] keys = new long[rows * columns];
+        for (int col = 0; col < columns; col++) {
+            for (int row = 0; row < rows; row++) {
+                keys[col * rows + row] = compute(rows, columns, row, col, symbol);
+            }
+        }
+        return keys;
+    }
+
+    /** The key for symbol on (row, col) of a rows x columns board, without any table. */
+    static long compute(int rows, int columns, int row, int col, char symbol) {
+        return mix(mix(rows, columns, symbol), row, col);
+    }
+
+    private static long mix(long a, long b, long c) {
+        long h = a * 0x9E3779B97F4A7C15L + b;
+        h = (h ^ (h >>> 31)) * 0xBF58476D1CE4E5B9L + c;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+}
@@ -0,0 +1,129 @@
+// AbstractBoardBenchmark.java
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-operation benchmarks shared by {@link BoardBenchmark} and
+ * {@link ClassicBoardBenchmark}, which only differ in the boards they
+ * create. Whole games and reset live in {@link GameBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public abstract class AbstractBoardBenchmark {
+
+    /** Discs in a line needed to win; per-move cost should grow with this, not with the board size. */
+    @Param({"4", "6"})
+    public int winLength;
+
+    /** Fraction of cells already occupied (win-free) before each measured operation. */
+    @Param({"0.0", "0.5"})
+    public double fill;
+
+    /**
+     * Plays a SparseBoard in the same fork first, so the shared board code
+     * has seen a second cell storage, as in a program that uses both. Dense
+     * boards should cost the same either way.
+     */
+    @Param({"false", "true"})
+    public boolean sparseLoaded;
+
+    // Includes non-ASCII symbols, which used to be boxed on every move
+    private static final char[] PLAYERS = {'X', 'O', 'A', '\u263A', '\u00E9'};
+
+    private ConnectFourBoard board;
+    private char[] symbols;
+    private int nextColumn;
+    private int nextPlayer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (sparseLoaded) {
+            ConnectFourBoard sparse = new SparseBoard(1000, 1000, winLength);
+            SplittableRandom random = new SplittableRandom(7L);
+            for (int i = 0; i < 200_000; i++) {
+                sparse.dropDisc(random.nextInt(1000), PLAYERS[i % PLAYERS.length]);
+                sparse.hasConnectFour();
+                sparse.getCell(999, 0);
+                if (sparse.getMoveCount() > 64) {
+                    sparse.reset();
+                }
+            }
+        }
+        board = createBoard();
+        symbols = symbols();
+        BenchmarkBoards.fillWithoutWin(board, fill, 42L);
+    }
+
+    /** Empty board of the implementation and size under test, for {@link #winLength}. */
+    protected abstract ConnectFourBoard createBoard();
+
+    /** Symbols dropDiscManyPlayers cycles through. */
+    protected char[] symbols() {
+        return PLAYERS;
+    }
+
+    /** dropDisc followed by undoMove so every invocation sees the same position. */
+    @Benchmark
+    public int dropDisc() {
+        int column = nextPlayableColumn();
+        int row = board.dropDisc(column, 'X');
+        board.undoMove();
+        return row;
+    }
+
+    /**
+     * Drop, win check and undo cycling through several players; with -prof gc
+     * this should report 0 B/op for every implementation.
+     */
+    @Benchmark
+    public boolean dropDiscManyPlayers() {
+        char symbol = symbols[nextPlayer];
+        nextPlayer = (nextPlayer + 1) % symbols.length;
+        board.dropDisc(nextPlayableColumn(), symbol);
+        boolean won = board.hasConnectFour();
+        board.undoMove();
+        return won;
+    }
+
+    /** Win check for the last disc of the prepared position. */
+    @Benchmark
+    public boolean hasConnectFour() {
+        return board.hasConnectFour();
+    }
+
+    /** Immutable copy of the prepared position: word copies for BitboardBoard, a replay otherwise. */
+    @Benchmark
+    public BoardSnapshot snapshot() {
+        return board.snapshot();
+    }
+
+    private int nextPlayableColumn() {
+        int columns = board.getColumns();
+        for (int i = 0; i < columns; i++) {
+            int column = nextColumn;
+            nextColumn = (nextColumn + 1) % columns;
+            if (board.isColumnPlayable(column)) {
+                return column;
+            }
+        }
+        throw new IllegalStateException("board is full");
+    }
+}
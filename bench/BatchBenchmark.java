@@ -0,0 +1,68 @@
+// BatchBenchmark.java
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Random 7x6 games per second: a {@link BatchEngine} of GAMES games on the
+ * scalar or the Vector API kernel, against the same number of playouts on
+ * one {@link ClassicBitboardBoard} ("boards").
+ *
+ *   java -cp ... org.openjdk.jmh.Main BatchBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class BatchBenchmark {
+
+    private static final int GAMES = 4096;
+
+    @Param({"boards", "scalar", "vector"})
+    public String kernel;
+
+    private BatchEngine batch;
+    private ClassicBitboardBoard board;
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp() {
+        random = new SplittableRandom(42L);
+        if (kernel.equals("boards")) {
+            board = new ClassicBitboardBoard();
+        } else {
+            batch = new BatchEngine(GAMES, kernel.equals("vector"));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public long randomGames() {
+        if (batch == null) {
+            long discs = 0;
+            for (int g = 0; g < GAMES; g++) {
+                board.reset();
+                board.playout(random, 'X', 'O');
+                discs += board.getMoveCount();
+            }
+            return discs;
+        }
+        batch.reset();
+        return batch.playRandom(random);
+    }
+}
@@ -0,0 +1,91 @@
+// BenchmarkBoards.java
+
+import java.util.SplittableRandom;
+
+/**
+ * Shared helpers for the JMH benchmarks: builds boards by implementation name
+ * and size, and prepares reproducible win-free positions.
+ */
+final class BenchmarkBoards {
+
+    private BenchmarkBoards() {
+    }
+
+    /** Creates a connect-four board from JMH parameters such as "BitboardBoard" and "100x100" (rows x columns). */
+    static ConnectFourBoard create(String impl, String size) {
+        return create(impl, size, 4);
+    }
+
+    /** Creates a connect-K board. */
+    static ConnectFourBoard create(String impl, String size, int winLength) {
+        int x = size.indexOf('x');
+        int rows = Integer.parseInt(size.substring(0, x));
+        int columns = Integer.parseInt(size.substring(x + 1));
+        switch (impl) {
+            case "NaiveBoard":
+                return new NaiveBoard(rows, columns, winLength);
+            case "OptimizedBoard":
+                return new OptimizedBoard(rows, columns, winLength);
+            case "BitboardBoard":
+                return new BitboardBoard(rows, columns, winLength);
+            case "SparseBoard":
+                return new SparseBoard(rows, columns, winLength);
+            case "RunLengthBoard":
+                return new RunLengthBoard(rows, columns, winLength);
+            case "ClassicBitboardBoard":
+                // fixed 6x7; run with -p impl=ClassicBitboardBoard -p size=6x7
+                if (rows != ClassicBitboardBoard.ROWS || columns != ClassicBitboardBoard.COLUMNS) {
+                    throw new IllegalArgumentException("ClassicBitboardBoard is 6x7 only");
+                }
+                return new ClassicBitboardBoard('X', 'O', winLength);
+            default:
+                throw new IllegalArgumentException("Unknown board implementation: " + impl);
+        }
+    }
+
+    /**
+     * Fills the board with alternating random discs until the given fraction of
+     * cells is used, never leaving four in a row. OptimizedBoard acts as the
+     * oracle so preparing large NaiveBoard positions stays cheap.
+     */
+    static void fillWithoutWin(ConnectFourBoard board, double fraction, long seed) {
+        ConnectFourBoard oracle = new OptimizedBoard(board.getRows(), board.getColumns(), board.getWinLength());
+        SplittableRandom random = new SplittableRandom(seed);
+        int target = (int) (board.getRows() * (long) board.getColumns() * fraction);
+        int attempts = 0;
+        char current = 'X';
+        while (oracle.getMoveCount() < target && attempts++ < target * 20) {
+            int column = random.nextInt(board.getColumns());
+            if (oracle.dropDisc(column, current) < 0) {
+                continue;
+            }
+            if (oracle.hasConnectFour()) {
+                oracle.undoMove();
+                continue;
+            }
+            board.dropDisc(column, current);
+            current = (current == 'X') ? 'O' : 'X';
+        }
+    }
+
+    /**
+     * Plays one random game the same way PerformanceTest does and returns the
+     * number of discs dropped.
+     */
+    static int playRandomGame(ConnectFourBoard board, SplittableRandom random) {
+        board.reset();
+        char current = 'X';
+        int columns = board.getColumns();
+        while (!board.isFull()) {
+            int col = random.nextInt(columns);
+            if (board.dropDisc(col, current) == -1) {
+                continue;
+            }
+            if (board.hasConnectFour()) {
+                break;
+            }
+            current = (current == 'X') ? 'O' : 'X';
+        }
+        return board.getMoveCount();
+    }
+}
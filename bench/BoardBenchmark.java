@@ -0,0 +1,28 @@
+// BoardBenchmark.java
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Per-operation latency of the board implementations on a prepared position,
+ * for every size. The fixed 6x7 ClassicBitboardBoard has its own
+ * {@link ClassicBoardBenchmark}; JMH's name filter "BoardBenchmark" runs both.
+ *
+ * Run with the GC profiler to get allocation rates as well:
+ *   java -jar bench/target/benchmarks.jar BoardBenchmark -prof gc
+ */
+@State(Scope.Thread)
+public class BoardBenchmark extends AbstractBoardBenchmark {
+
+    @Param({"NaiveBoard", "OptimizedBoard", "BitboardBoard", "RunLengthBoard", "SparseBoard"})
+    public String impl;
+
+    @Param({"6x7", "100x100", "1000x1000"})
+    public String size;
+
+    @Override
+    protected ConnectFourBoard createBoard() {
+        return BenchmarkBoards.create(impl, size, winLength);
+    }
+}
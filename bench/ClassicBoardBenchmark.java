@@ -0,0 +1,25 @@
+// ClassicBoardBenchmark.java
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The {@link BoardBenchmark} operations on ClassicBitboardBoard, which only
+ * exists in 6x7 and so cannot share the size parameter. It holds two
+ * symbols, so dropDiscManyPlayers alternates X and O.
+ */
+@State(Scope.Thread)
+public class ClassicBoardBenchmark extends AbstractBoardBenchmark {
+
+    private static final char[] PLAYERS = {'X', 'O'};
+
+    @Override
+    protected ConnectFourBoard createBoard() {
+        return BenchmarkBoards.create("ClassicBitboardBoard", "6x7", winLength);
+    }
+
+    @Override
+    protected char[] symbols() {
+        return PLAYERS;
+    }
+}
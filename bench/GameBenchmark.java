@@ -0,0 +1,96 @@
+// GameBenchmark.java
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Whole random games (the PerformanceTest workload), playouts and reset cost.
+ *
+ *   java -cp ... org.openjdk.jmh.Main GameBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class GameBenchmark {
+
+    @Param({"NaiveBoard", "OptimizedBoard", "BitboardBoard", "RunLengthBoard"})
+    public String impl;
+
+    @Param({"6x7", "100x100", "1000x1000"})
+    public String size;
+
+    private ConnectFourBoard board;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        board = BenchmarkBoards.create(impl, size);
+        random = new SplittableRandom(42L);
+    }
+
+    /** One random game from an empty board until a win or a full board; returns discs played. */
+    @Benchmark
+    public int randomGame() {
+        return BenchmarkBoards.playRandomGame(board, random);
+    }
+
+    /**
+     * One game through {@link ConnectFourBoard#playout}: only non-full columns
+     * are drawn, so there are no retries. Includes the reset before the game.
+     */
+    @Benchmark
+    public char randomPlayout() {
+        board.reset();
+        return board.playout(random, 'X', 'O');
+    }
+
+    /**
+     * reset() right after a random game. The game itself is played in an
+     * invocation-level setup, so only sizes where reset takes well over a
+     * microsecond give meaningful numbers.
+     */
+    @Benchmark
+    public void reset(PlayedGame game) {
+        game.board.reset();
+    }
+
+    /** The O(rows * columns) wipe reset() falls back to for long games; baseline for {@link #reset}. */
+    @Benchmark
+    public void bulkClear(PlayedGame game) {
+        game.board.clear();
+    }
+
+    @State(Scope.Thread)
+    public static class PlayedGame {
+
+        ConnectFourBoard board;
+        private SplittableRandom random;
+
+        @Setup(Level.Trial)
+        public void setUp(GameBenchmark benchmark) {
+            board = BenchmarkBoards.create(benchmark.impl, benchmark.size);
+            random = new SplittableRandom(7L);
+        }
+
+        @Setup(Level.Invocation)
+        public void playGame() {
+            BenchmarkBoards.playRandomGame(board, random);
+        }
+    }
+}
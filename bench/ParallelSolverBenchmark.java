@@ -0,0 +1,65 @@
+// ParallelSolverBenchmark.java
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to solve a fixed middlegame with the Lazy SMP solver, by thread count.
+ * The table is cleared before every solve so each one starts cold.
+ *
+ *   java -cp ... org.openjdk.jmh.Main ParallelSolverBenchmark -p threads=1,4
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelSolverBenchmark {
+
+    // 16 discs of a quiet middlegame, a few hundred ms single-threaded
+    private static final int[] MOVES = {1, 0, 6, 0, 1, 6, 1, 1, 6, 1, 2, 2, 1, 5, 6, 6};
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private ParallelSolver solver;
+    private ClassicBitboardBoard position;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        solver = new ParallelSolver(threads);
+        position = new ClassicBitboardBoard();
+        for (int column : MOVES) {
+            position.dropDisc(column, position.getSymbolToMove());
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        solver.getTable().clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        solver.close();
+    }
+
+    @Benchmark
+    public int solve() {
+        return solver.solve(position).getScore();
+    }
+}
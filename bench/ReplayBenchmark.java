@@ -0,0 +1,89 @@
+// ReplayBenchmark.java
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Replay throughput of a memory-mapped game archive into each board
+ * implementation. The "moves" counter is reported as moves per second next
+ * to the archive passes per second.
+ *
+ *   java -cp ... org.openjdk.jmh.Main ReplayBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ReplayBenchmark {
+
+    @Param({"OptimizedBoard", "BitboardBoard", "RunLengthBoard"})
+    public String impl;
+
+    @Param({"6x7", "100x100"})
+    public String size;
+
+    /** Random games recorded into the archive; each benchmark invocation replays all of them. */
+    @Param({"100000"})
+    public int games;
+
+    private Path file;
+    private GameArchiveReader reader;
+    private ConnectFourBoard board;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Moves {
+        public long moves;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        board = BenchmarkBoards.create(impl, size);
+        file = Files.createTempFile("replay-benchmark", ".c4ga");
+        SplittableRandom random = new SplittableRandom(42L);
+        ConnectFourBoard recorder = BenchmarkBoards.create("BitboardBoard", size);
+        try (GameArchiveWriter writer = GameArchiveWriter.create(file, recorder.getRows(), recorder.getColumns(),
+                                                                 recorder.getWinLength(), 'X', 'O')) {
+            for (int g = 0; g < games; g++) {
+                recorder.reset();
+                recorder.playout(random, 'X', 'O');
+                writer.writeGame(recorder);
+            }
+        }
+        reader = GameArchiveReader.open(file);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        reader = null;
+        Files.deleteIfExists(file);
+    }
+
+    /** Replays every game of the archive into the board. */
+    @Benchmark
+    public long replayAll(Moves counter) {
+        long moves = reader.replayAll(board, null);
+        counter.moves += moves;
+        return moves;
+    }
+}
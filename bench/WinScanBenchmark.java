@@ -0,0 +1,58 @@
+// WinScanBenchmark.java
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Judging a whole win-free position without a last move: the cell-by-cell
+ * scan of NaiveBoard against the word-parallel
+ * {@link BitboardBoard#findAnyConnectFour()}. Win-free is the worst case
+ * for both, as neither can stop early.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class WinScanBenchmark {
+
+    @Param({"6x7", "100x100", "1000x1000"})
+    public String size;
+
+    @Param({"0.5", "0.9"})
+    public double fill;
+
+    private NaiveBoard naive;
+    private BitboardBoard bitboard;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        naive = (NaiveBoard) BenchmarkBoards.create("NaiveBoard", size);
+        bitboard = (BitboardBoard) BenchmarkBoards.create("BitboardBoard", size);
+        BenchmarkBoards.fillWithoutWin(naive, fill, 42L);
+        bitboard.copyFrom(naive);
+    }
+
+    @Benchmark
+    public boolean naiveScan() {
+        return naive.hasConnectFour();
+    }
+
+    @Benchmark
+    public WinningLine wordParallelScan() {
+        return bitboard.findAnyConnectFour();
+    }
+}
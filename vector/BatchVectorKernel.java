@@ -0,0 +1,41 @@
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link BatchEngine} win check on the JDK Vector API: the shift-and-AND
+ * steps of {@link BatchEngine#fours(long)} applied to as many bitboards at
+ * once as the preferred vector holds (4 on AVX2, 8 on AVX-512), with the
+ * scalar code for the tail.
+ *
+ * Lives in its own source directory because it only compiles and loads
+ * with {@code --add-modules jdk.incubator.vector}; BatchEngine creates it
+ * reflectively and falls back to the scalar loop when that fails.
+ */
+final class BatchVectorKernel implements BatchEngine.Kernel {
+
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+    private static final int HEIGHT = ClassicBitboardBoard.ROWS + 1;
+
+    @Override
+    public void findFours(long[] bits, long[] lines, int n) {
+        int i = 0;
+        for (int bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+            LongVector b = LongVector.fromArray(SPECIES, bits, i);
+            run(b, HEIGHT)
+                .or(run(b, HEIGHT - 1))
+                .or(run(b, HEIGHT + 1))
+                .or(run(b, 1))
+                .intoArray(lines, i);
+        }
+        for (; i < n; i++) {
+            lines[i] = BatchEngine.fours(bits[i]);
+        }
+    }
+
+    /** Start bits of four in a row along shift, per lane. */
+    private static LongVector run(LongVector b, int shift) {
+        LongVector m = b.and(b.lanewise(VectorOperators.LSHR, shift));
+        return m.and(m.lanewise(VectorOperators.LSHR, 2 * shift));
+    }
+}